@@ -1,8 +1,12 @@
 package mnds.list;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * The array implementation of the List ADT.
@@ -10,7 +14,7 @@ import java.util.NoSuchElementException;
  *
  * @param <E> The type of he element of the list.
  */
-public class ArrayList<E> implements List<E> {
+public class ArrayList<E> implements List<E>, RandomAccess {
 
 	E[] elements;
 	int size = 0;
@@ -34,39 +38,26 @@ public class ArrayList<E> implements List<E> {
 		elements = (E[]) new  Object[initialCapacity];
 	}
 	
-	@SuppressWarnings("unchecked")
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalStateException If the list already has Integer.MAX_VALUE elements.
+	 */
 	@Override
-	public void add(int index, E element) throws IndexOutOfBoundsException {
+	public void add(int index, E element) throws IndexOutOfBoundsException, IllegalStateException {
 		
 		if (index < 0 || index > size) {
 			throw new IndexOutOfBoundsException();
 		}
+		ensureCapacity(size + 1);
 		// Shift the elements to an upper index.
-		if (size < elements.length) {
-			for (int i = size; i > index; i--) {
-				elements[i] = elements[i - 1];
-			}
-		} else { // Resize the array
-			E[] newArray = (E[]) new Object[2 * elements.length];
-			int i = 0;
-			while (i < index) {
-				newArray[i] = elements[i];
-				i++;
-			}
-			// A gap is left for the new element
-			while (i <= size) {
-				i++;
-				newArray[i]  = elements[i];
-			}
-			elements = newArray;
-		}
+		System.arraycopy(elements, index, elements, index + 1, size - index);
 		elements[index] = element;
 		size++;
 	}
 
 	@Override
 	public E get(int index) throws IndexOutOfBoundsException {
-		if (index >= size) {
+		if (index < 0 || index >= size) {
 			throw new IndexOutOfBoundsException();
 		}
 		return elements[index];
@@ -81,9 +72,7 @@ public class ArrayList<E> implements List<E> {
 		E element = elements[index];
 		
 		// Shift the elements to a lower index to cover the gap of the removed element.
-		for (int i = index + 1; i < size; i++) {
-			elements[i - 1] = elements[i];
-		}
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
 		elements[size - 1] = null;
 		size--;
 		
@@ -112,6 +101,89 @@ public class ArrayList<E> implements List<E> {
 	public int size() {
 		return size;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalStateException If the list would have more than Integer.MAX_VALUE
+	 * elements, the list isn't changed.
+	 */
+	@Override
+	public void addAll(int index, List<? extends E> list)
+			throws IndexOutOfBoundsException, IllegalStateException {
+		
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		// The elements are copied first in case the list is this one or a view of it.
+		Object[] newElements = list.toArray();
+		ensureCapacity(size + newElements.length);
+		System.arraycopy(elements, index, elements, index + newElements.length, size - index);
+		System.arraycopy(newElements, 0, elements, index, newElements.length);
+		size += newElements.length;
+	}
+
+	@Override
+	public void removeRange(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+		int newSize = size - (toIndex - fromIndex);
+		Arrays.fill(elements, newSize, size, null);
+		size = newSize;
+	}
+
+	@Override
+	public void setAll(int index, List<? extends E> list) throws IndexOutOfBoundsException {
+		
+		Object[] newElements = list.toArray();
+		if (index < 0 || index > size - newElements.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		System.arraycopy(newElements, 0, elements, index, newElements.length);
+	}
+
+	@Override
+	public Object[] toArray() {
+		return toArray(0, size);
+	}
+
+	/**
+	 * Gets an array with the elements from the first index, inclusive, to the second one,
+	 * exclusive, copied in a single block. It is used by the views of the list.
+	 * @param fromIndex The index of the first element, it must be valid.
+	 * @param toIndex The index after the last element, it must be valid.
+	 * @return A new array with the elements of the range.
+	 */
+	Object[] toArray(int fromIndex, int toIndex) {
+		return Arrays.copyOfRange(elements, fromIndex, toIndex, Object[].class);
+	}
+
+	@Override
+	public List<E> subList(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		return new SubList<E>(this, fromIndex, toIndex);
+	}
+	
+	/**
+	 * Grows the array of elements, at least doubling it, if it can't hold the indicated
+	 * number of elements.
+	 * @param capacity The number of elements the array must be able to hold, negative if
+	 * it has overflowed.
+	 * @throws IllegalStateException If the capacity has overflowed.
+	 */
+	private void ensureCapacity(int capacity) throws IllegalStateException {
+		if (capacity < 0) {
+			throw new IllegalStateException("Full list");
+		}
+		if (capacity > elements.length) {
+			int newLength = Math.max(2 * elements.length, INITIAL_CAPACITY);
+			if (newLength < capacity || newLength < 0) {
+				newLength = capacity;
+			}
+			elements = Arrays.copyOf(elements, newLength);
+		}
+	}
 	
 	public static class ArrayListIterator<E> implements ListIterator<E> {
 		
@@ -184,6 +256,9 @@ public class ArrayList<E> implements List<E> {
 			}
 			
 			list.remove(current);
+			if (current < next) {
+				next--;
+			}
 			current = INVALID_CURRENT;
 		}
 
@@ -201,4 +276,78 @@ public class ArrayList<E> implements List<E> {
 	public Iterator<E> iterator() {
 		return new ArrayListIterator<E>(this);
 	}
+	
+	/**
+	 * Gets a spliterator over the elements of the list. It splits the range of indexes
+	 * in halves, so the size of every split part is known.
+	 * @return The spliterator of the list.
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new ArrayListSpliterator<E>(this, 0, size);
+	}
+	
+	/**
+	 * A spliterator over a range of indexes of an ArrayList.
+	 */
+	private static class ArrayListSpliterator<E> implements Spliterator<E> {
+		
+		private final ArrayList<E> list;
+		private int index;
+		private final int fence;
+		
+		/**
+		 * Creates a spliterator over the elements of the list from the first index,
+		 * inclusive, to the fence, exclusive.
+		 * @param list The list to traverse.
+		 * @param index The index of the first element.
+		 * @param fence The index after the last element.
+		 */
+		private ArrayListSpliterator(ArrayList<E> list, int index, int fence) {
+			this.list = list;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if (index >= fence) {
+				return false;
+			}
+			E element = list.elements[index];
+			index++;
+			action.accept(element);
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining(Consumer<? super E> action) {
+			E[] elements = list.elements;
+			for (int i = index; i < fence; i++) {
+				action.accept(elements[i]);
+			}
+			index = fence;
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			int middle = (index + fence) >>> 1;
+			if (middle <= index) {
+				return null;
+			}
+			Spliterator<E> prefix = new ArrayListSpliterator<E>(list, index, middle);
+			index = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
 }
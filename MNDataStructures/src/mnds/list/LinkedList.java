@@ -96,6 +96,97 @@ public class LinkedList<E> implements List<E> {
 	public int size() {
 		return size;
 	}
+
+	@Override
+	public void addAll(int index, List<? extends E> list) throws IndexOutOfBoundsException {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		// Build the chain of new cells apart, so the list can be this one or a view of it.
+		Cell<E> chainFront = new Cell<E>(null);
+		Cell<E> chainEnd = chainFront;
+		int addedCount = 0;
+		for (E element : list) {
+			Cell<E> newCell = new Cell<E>(element);
+			newCell.previous = chainEnd;
+			chainEnd.next = newCell;
+			chainEnd = newCell;
+			addedCount++;
+		}
+		if (addedCount == 0) {
+			return;
+		}
+		
+		// Splice the chain after the cell before the index.
+		Cell<E> previousCell = getCellAtIndex(index - 1);
+		Cell<E> first = chainFront.next;
+		first.previous = previousCell;
+		chainEnd.next = previousCell.next;
+		previousCell.next.previous = chainEnd;
+		previousCell.next = first;
+		size += addedCount;
+	}
+
+	@Override
+	public void removeRange(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (fromIndex == toIndex) {
+			return;
+		}
+		
+		Cell<E> previousCell = getCellAtIndex(fromIndex - 1);
+		Cell<E> nextCell;
+		if (toIndex - fromIndex <= size - toIndex) {
+			nextCell = previousCell.next;
+			for (int i = fromIndex; i < toIndex; i++) {
+				nextCell = nextCell.next;
+			}
+		} else {
+			nextCell = getCellAtIndex(toIndex);
+		}
+		// Unlink the whole chain of removed cells at once.
+		previousCell.next = nextCell;
+		nextCell.previous = previousCell;
+		size -= toIndex - fromIndex;
+	}
+
+	@Override
+	public void setAll(int index, List<? extends E> list) throws IndexOutOfBoundsException {
+		Object[] newElements = list.toArray();
+		if (index < 0 || index > size - newElements.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (newElements.length == 0) {
+			return;
+		}
+		
+		Cell<E> cell = getCellAtIndex(index);
+		for (int i = 0; i < newElements.length; i++) {
+			@SuppressWarnings("unchecked")
+			E element = (E) newElements[i];
+			cell.content = element;
+			cell = cell.next;
+		}
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		Cell<E> aux = front.next;
+		for (int i = 0; i < size; i++) {
+			array[i] = aux.content;
+			aux = aux.next;
+		}
+		return array;
+	}
+
+	@Override
+	public List<E> subList(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		return new SubList<E>(this, fromIndex, toIndex);
+	}
 	
 	private static class LinkedListIterator<E> implements ListIterator<E> {
 		
@@ -134,7 +225,7 @@ public class LinkedList<E> implements List<E> {
 
 		@Override
 		public boolean hasPrevious() {
-			return next.previous != list.end;
+			return next.previous != list.front;
 		}
 
 		@Override
@@ -176,6 +267,13 @@ public class LinkedList<E> implements List<E> {
 			}
 			current.previous.next = current.next;
 			current.next.previous = current.previous;
+			// The removed cell was the next one if it was got with previous.
+			if (current == next) {
+				next = current.next;
+			} else {
+				nextIndex--;
+			}
+			list.size--;
 			current = null;
 		}
 
@@ -55,4 +55,52 @@ public interface List<E> extends Iterable<E> {
 	 * @return the number of elements that the list has.
 	 */
 	public int size();
+	
+	/**
+	 * Inserts all the elements of another list starting at the indicated index, in order.
+	 * All the elements at greater indexes are shifted to make a gap for the new ones.
+	 * @param index The index where to insert the first element.
+	 * @param elements The list with the elements to be added.
+	 * @throws IndexOutOfBoundsException if the index is negative or it's greater than the
+	 * size of the list.
+	 */
+	public void addAll(int index, List<? extends E> elements) throws IndexOutOfBoundsException;
+	
+	/**
+	 * Removes the elements from the first index, inclusive, to the second one, exclusive.
+	 * All the elements at greater indexes are shifted to cover the gap.
+	 * @param fromIndex The index of the first element to be removed.
+	 * @param toIndex The index after the last element to be removed.
+	 * @throws IndexOutOfBoundsException if fromIndex is negative, toIndex is greater than
+	 * the size of the list or fromIndex is greater than toIndex.
+	 */
+	public void removeRange(int fromIndex, int toIndex) throws IndexOutOfBoundsException;
+	
+	/**
+	 * Replaces the elements starting at the indicated index with the elements of another
+	 * list, in order.
+	 * @param index The index of the first element to be replaced.
+	 * @param elements The list with the new elements.
+	 * @throws IndexOutOfBoundsException if the index is negative or there aren't as many
+	 * elements from the index on as the other list has.
+	 */
+	public void setAll(int index, List<? extends E> elements) throws IndexOutOfBoundsException;
+	
+	/**
+	 * Gets an array with all the elements of the list, in order.
+	 * @return A new array with the elements of the list.
+	 */
+	public Object[] toArray();
+	
+	/**
+	 * Gets a view of the elements from the first index, inclusive, to the second one,
+	 * exclusive. The changes done through the view are done on this list. If this list
+	 * is modified in any other way the behavior of the view is undefined.
+	 * @param fromIndex The index of the first element of the view.
+	 * @param toIndex The index after the last element of the view.
+	 * @return The view of the range of elements.
+	 * @throws IndexOutOfBoundsException if fromIndex is negative, toIndex is greater than
+	 * the size of the list or fromIndex is greater than toIndex.
+	 */
+	public List<E> subList(int fromIndex, int toIndex) throws IndexOutOfBoundsException;
 }
@@ -0,0 +1,487 @@
+package mnds.list;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The segmented array implementation of the List ADT.
+ * <p>
+ * The elements are kept in fixed size chunks referenced from a directory, so the
+ * element at index i is in the chunk i >>> shift at the position i & mask and getting
+ * it takes constant time. Growing appends a new chunk and never copies the elements,
+ * only the directory of chunks is copied when it is full. Inserting or removing in the
+ * middle shifts the following elements with one System.arraycopy per chunk. When the
+ * list is drained the chunks that aren't needed any more are released, keeping a single
+ * spare chunk.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the list.
+ */
+public class SegmentedArrayList<E> implements List<E>, RandomAccess {
+
+	E[][] chunks;
+	// The chunks from 0 to chunksCount - 1 are allocated.
+	int chunksCount = 0;
+	int size = 0;
+	final int shift;
+	final int mask;
+
+	private static final int DEFAULT_CHUNK_SIZE = 1024;
+	private static final int MAX_CHUNK_SIZE = 1 << 24;
+	private static final int MIN_DIRECTORY_LENGTH = 4;
+
+	/**
+	 * Creates a new SegmentedArrayList with the default chunk size.
+	 */
+	public SegmentedArrayList() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new SegmentedArrayList with the indicated chunk size.
+	 * @param chunkSize The number of elements of each chunk.
+	 * @throws IllegalArgumentException If the chunk size isn't a power of two or it is greater than 2^24.
+	 */
+	@SuppressWarnings("unchecked")
+	public SegmentedArrayList(int chunkSize) throws IllegalArgumentException {
+		if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1) {
+			throw new IllegalArgumentException("Invalid chunk size");
+		}
+		shift = Integer.numberOfTrailingZeros(chunkSize);
+		mask = chunkSize - 1;
+		chunks = (E[][]) new Object[MIN_DIRECTORY_LENGTH][];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalStateException If the list already has Integer.MAX_VALUE elements.
+	 */
+	@Override
+	public void add(int index, E element) throws IndexOutOfBoundsException, IllegalStateException {
+
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		ensureCapacity(size + 1);
+		copyWithin(index, index + 1, size - index);
+		chunks[index >>> shift][index & mask] = element;
+		size++;
+	}
+
+	@Override
+	public E get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return chunks[index >>> shift][index & mask];
+	}
+
+	/**
+	 * Replaces the element at the indicated index.
+	 * @param index The index of the element to be replaced.
+	 * @param element The new element.
+	 * @return The replaced element.
+	 * @throws IndexOutOfBoundsException if the index is negative or it isn't less than the
+	 * size of the list.
+	 */
+	public E set(int index, E element) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		E[] chunk = chunks[index >>> shift];
+		E replaced = chunk[index & mask];
+		chunk[index & mask] = element;
+		return replaced;
+	}
+
+	@Override
+	public E remove(int index) throws IndexOutOfBoundsException {
+
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		E element = chunks[index >>> shift][index & mask];
+		copyWithin(index + 1, index, size - index - 1);
+		size--;
+		chunks[size >>> shift][size & mask] = null;
+		if ((size & mask) == 0) {
+			releaseUnusedChunks();
+		}
+		return element;
+	}
+
+	@Override
+	public int indexOf(E element) {
+		for (int c = 0; c < chunksCount; c++) {
+			E[] chunk = chunks[c];
+			int end = Math.min(size - (c << shift), mask + 1);
+			for (int i = 0; i < end; i++) {
+				if (element.equals(chunk[i])) {
+					return (c << shift) + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Makes the list empty, releasing all the chunks but one.
+	 */
+	@Override
+	public void clear() {
+		if (chunksCount > 0) {
+			Arrays.fill(chunks[0], null);
+		}
+		size = 0;
+		releaseUnusedChunks();
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalStateException If the list would have more than Integer.MAX_VALUE
+	 * elements, the list isn't changed.
+	 */
+	@Override
+	public void addAll(int index, List<? extends E> list)
+			throws IndexOutOfBoundsException, IllegalStateException {
+
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		// The elements are copied first in case the list is this one or a view of it.
+		Object[] newElements = list.toArray();
+		ensureCapacity(size + newElements.length);
+		copyWithin(index, index + newElements.length, size - index);
+		copyFromArray(newElements, index);
+		size += newElements.length;
+	}
+
+	@Override
+	public void removeRange(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		copyWithin(toIndex, fromIndex, size - toIndex);
+		int newSize = size - (toIndex - fromIndex);
+		// Clear the freed positions chunk by chunk.
+		int position = newSize;
+		while (position < size) {
+			int count = Math.min(size - position, mask + 1 - (position & mask));
+			Arrays.fill(chunks[position >>> shift], position & mask, (position & mask) + count, null);
+			position += count;
+		}
+		size = newSize;
+		releaseUnusedChunks();
+	}
+
+	@Override
+	public void setAll(int index, List<? extends E> list) throws IndexOutOfBoundsException {
+
+		Object[] newElements = list.toArray();
+		if (index < 0 || index > size - newElements.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		copyFromArray(newElements, index);
+	}
+
+	@Override
+	public Object[] toArray() {
+		return toArray(0, size);
+	}
+
+	/**
+	 * Gets an array with the elements from the first index, inclusive, to the second one,
+	 * exclusive, copied one block per chunk. It is used by the views of the list.
+	 * @param fromIndex The index of the first element, it must be valid.
+	 * @param toIndex The index after the last element, it must be valid.
+	 * @return A new array with the elements of the range.
+	 */
+	Object[] toArray(int fromIndex, int toIndex) {
+		Object[] array = new Object[toIndex - fromIndex];
+		int copied = 0;
+		while (copied < array.length) {
+			int position = fromIndex + copied;
+			int count = Math.min(array.length - copied, mask + 1 - (position & mask));
+			System.arraycopy(chunks[position >>> shift], position & mask, array, copied, count);
+			copied += count;
+		}
+		return array;
+	}
+
+	@Override
+	public List<E> subList(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		return new SubList<E>(this, fromIndex, toIndex);
+	}
+
+	/**
+	 * Copies a range of positions to another one, one block per chunk. The ranges may
+	 * overlap, and all the positions must be in allocated chunks.
+	 * @param from The first position of the source range.
+	 * @param to The first position of the destination range.
+	 * @param length The number of elements to copy.
+	 */
+	private void copyWithin(int from, int to, int length) {
+		if (to > from) {
+			// Copy backwards so the source isn't overwritten before it is read.
+			int remaining = length;
+			while (remaining > 0) {
+				int sourceEnd = from + remaining - 1;
+				int destinationEnd = to + remaining - 1;
+				int count = Math.min(remaining, Math.min((sourceEnd & mask) + 1, (destinationEnd & mask) + 1));
+				System.arraycopy(chunks[sourceEnd >>> shift], (sourceEnd & mask) + 1 - count,
+						chunks[destinationEnd >>> shift], (destinationEnd & mask) + 1 - count, count);
+				remaining -= count;
+			}
+		} else {
+			int copied = 0;
+			while (copied < length) {
+				int source = from + copied;
+				int destination = to + copied;
+				int count = Math.min(length - copied,
+						Math.min(mask + 1 - (source & mask), mask + 1 - (destination & mask)));
+				System.arraycopy(chunks[source >>> shift], source & mask,
+						chunks[destination >>> shift], destination & mask, count);
+				copied += count;
+			}
+		}
+	}
+
+	/**
+	 * Copies all the elements of an array to the positions starting at the indicated one,
+	 * one block per chunk. All the positions must be in allocated chunks.
+	 * @param source The array with the elements to copy.
+	 * @param position The first position where to copy the elements.
+	 */
+	private void copyFromArray(Object[] source, int position) {
+		int copied = 0;
+		while (copied < source.length) {
+			int destination = position + copied;
+			int count = Math.min(source.length - copied, mask + 1 - (destination & mask));
+			System.arraycopy(source, copied, chunks[destination >>> shift], destination & mask, count);
+			copied += count;
+		}
+	}
+
+	/**
+	 * Allocates chunks until the list can hold the indicated number of elements.
+	 * @param capacity The number of elements the list must be able to hold, negative if
+	 * it has overflowed.
+	 * @throws IllegalStateException If the capacity has overflowed.
+	 */
+	@SuppressWarnings("unchecked")
+	void ensureCapacity(int capacity) throws IllegalStateException {
+		if (capacity < 0) {
+			throw new IllegalStateException("Full list");
+		}
+		int neededChunks = (int) (((long) capacity + mask) >>> shift);
+		if (neededChunks > chunks.length) {
+			int directoryLength = chunks.length;
+			while (directoryLength < neededChunks) {
+				directoryLength *= 2;
+			}
+			chunks = Arrays.copyOf(chunks, directoryLength);
+		}
+		while (chunksCount < neededChunks) {
+			chunks[chunksCount] = (E[]) new Object[mask + 1];
+			chunksCount++;
+		}
+	}
+
+	/**
+	 * Releases the chunks past the used ones but a spare one, and halves the directory
+	 * while it is mostly empty.
+	 */
+	void releaseUnusedChunks() {
+		int usedChunks = (size + mask) >>> shift;
+		while (chunksCount > usedChunks + 1) {
+			chunksCount--;
+			chunks[chunksCount] = null;
+		}
+		int directoryLength = chunks.length;
+		while (directoryLength > MIN_DIRECTORY_LENGTH && chunksCount < directoryLength / 4) {
+			directoryLength /= 2;
+		}
+		if (directoryLength < chunks.length) {
+			chunks = Arrays.copyOf(chunks, directoryLength);
+		}
+	}
+
+	public static class SegmentedArrayListIterator<E> implements ListIterator<E> {
+
+		private SegmentedArrayList<E> list;
+		private int next = 0;
+		private int current = INVALID_CURRENT;
+
+		private static final int INVALID_CURRENT = -1;
+
+		/**
+		 * Creates a new iterator of SegmentedArrayList.
+		 * @param list The list the iterator will iterate on.
+		 */
+		private SegmentedArrayListIterator(SegmentedArrayList<E> list) {
+			this.list = list;
+		}
+
+		@Override
+		public void add(E element) {
+			list.add(next, element);
+			current = INVALID_CURRENT;
+			next++;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < list.size;
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return next - 1 >= 0;
+		}
+
+		@Override
+		public E next() throws NoSuchElementException {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No next element");
+			}
+			current = next;
+			next++;
+			return list.get(current);
+		}
+
+		@Override
+		public int nextIndex() {
+			return next;
+		}
+
+		@Override
+		public E previous() throws NoSuchElementException {
+			if (!hasPrevious()) {
+				throw new NoSuchElementException("No previous element");
+			}
+			current = next - 1;
+			next--;
+			return list.get(current);
+		}
+
+		@Override
+		public int previousIndex() {
+			return next - 1;
+		}
+
+		@Override
+		public void remove() throws IllegalStateException {
+			if (current == INVALID_CURRENT) {
+				throw new IllegalStateException();
+			}
+			list.remove(current);
+			if (current < next) {
+				next--;
+			}
+			current = INVALID_CURRENT;
+		}
+
+		@Override
+		public void set(E element) throws IllegalStateException {
+			if (current == INVALID_CURRENT) {
+				throw new IllegalStateException();
+			}
+			list.set(current, element);
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new SegmentedArrayListIterator<E>(this);
+	}
+
+	/**
+	 * Gets a spliterator over the elements of the list. It splits the range of indexes
+	 * in halves, so the size of every split part is known.
+	 * @return The spliterator of the list.
+	 */
+	@Override
+	public Spliterator<E> spliterator() {
+		return new SegmentedArrayListSpliterator<E>(this, 0, size);
+	}
+
+	/**
+	 * A spliterator over a range of indexes of a SegmentedArrayList.
+	 */
+	private static class SegmentedArrayListSpliterator<E> implements Spliterator<E> {
+
+		private final SegmentedArrayList<E> list;
+		private int index;
+		private final int fence;
+
+		/**
+		 * Creates a spliterator over the elements of the list from the first index,
+		 * inclusive, to the fence, exclusive.
+		 * @param list The list to traverse.
+		 * @param index The index of the first element.
+		 * @param fence The index after the last element.
+		 */
+		private SegmentedArrayListSpliterator(SegmentedArrayList<E> list, int index, int fence) {
+			this.list = list;
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if (index >= fence) {
+				return false;
+			}
+			E element = list.chunks[index >>> list.shift][index & list.mask];
+			index++;
+			action.accept(element);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super E> action) {
+			// Go over the range a chunk at a time.
+			while (index < fence) {
+				E[] chunk = list.chunks[index >>> list.shift];
+				int offset = index & list.mask;
+				int count = Math.min(fence - index, list.mask + 1 - offset);
+				for (int i = offset; i < offset + count; i++) {
+					action.accept(chunk[i]);
+				}
+				index += count;
+			}
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			int middle = (index + fence) >>> 1;
+			if (middle <= index) {
+				return null;
+			}
+			Spliterator<E> prefix = new SegmentedArrayListSpliterator<E>(list, index, middle);
+			index = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package mnds.list;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * A view of a range of the elements of another list, shared by all the List implementations.
+ * Every operation is translated to the indexes of the parent list and done on it, so
+ * creating the view doesn't copy anything. If the parent list has constant time access
+ * by index, the view is iterated by index and copied to an array in blocks, so it costs
+ * nothing to reach the start of the view.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the list.
+ */
+class SubList<E> implements List<E> {
+
+	private final List<E> parent;
+	private final int offset;
+	private int size;
+
+	/**
+	 * Creates a view of the elements of the parent list from the first index, inclusive,
+	 * to the second one, exclusive.
+	 * @param parent The list the view is taken from.
+	 * @param fromIndex The index of the first element of the view.
+	 * @param toIndex The index after the last element of the view.
+	 * @throws IndexOutOfBoundsException if fromIndex is negative, toIndex is greater than
+	 * the size of the parent list or fromIndex is greater than toIndex.
+	 */
+	SubList(List<E> parent, int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		if (fromIndex < 0 || toIndex > parent.size() || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		this.parent = parent;
+		this.offset = fromIndex;
+		this.size = toIndex - fromIndex;
+	}
+
+	@Override
+	public void add(int index, E element) throws IndexOutOfBoundsException {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		parent.add(offset + index, element);
+		size++;
+	}
+
+	@Override
+	public E get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return parent.get(offset + index);
+	}
+
+	@Override
+	public E remove(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		E element = parent.remove(offset + index);
+		size--;
+		return element;
+	}
+
+	@Override
+	public int indexOf(E element) {
+		int index = 0;
+		for (E candidate : this) {
+			if (element.equals(candidate)) {
+				return index;
+			}
+			index++;
+		}
+		return -1;
+	}
+
+	@Override
+	public void clear() {
+		parent.removeRange(offset, offset + size);
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void addAll(int index, List<? extends E> elements) throws IndexOutOfBoundsException {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		int addedCount = elements.size();
+		parent.addAll(offset + index, elements);
+		size += addedCount;
+	}
+
+	@Override
+	public void removeRange(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		parent.removeRange(offset + fromIndex, offset + toIndex);
+		size -= toIndex - fromIndex;
+	}
+
+	@Override
+	public void setAll(int index, List<? extends E> elements) throws IndexOutOfBoundsException {
+		if (index < 0 || index > size - elements.size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		parent.setAll(offset + index, elements);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Object[] toArray() {
+		if (parent instanceof ArrayList) {
+			return ((ArrayList<E>) parent).toArray(offset, offset + size);
+		}
+		if (parent instanceof SegmentedArrayList) {
+			return ((SegmentedArrayList<E>) parent).toArray(offset, offset + size);
+		}
+		Object[] array = new Object[size];
+		int index = 0;
+		for (E element : this) {
+			array[index] = element;
+			index++;
+		}
+		return array;
+	}
+
+	@Override
+	public List<E> subList(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		return new SubList<E>(this, fromIndex, toIndex);
+	}
+
+	/**
+	 * An iterator of the view that gets the elements from the parent list by index, for
+	 * the parent lists with constant time access by index.
+	 */
+	private class IndexedSubListIterator implements Iterator<E> {
+
+		private int nextIndex = 0;
+		private int lastIndex = INVALID_INDEX;
+
+		private static final int INVALID_INDEX = -1;
+
+		@Override
+		public boolean hasNext() {
+			return nextIndex < size;
+		}
+
+		@Override
+		public E next() throws NoSuchElementException {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No next element");
+			}
+			lastIndex = nextIndex;
+			nextIndex++;
+			return parent.get(offset + lastIndex);
+		}
+
+		@Override
+		public void remove() throws IllegalStateException {
+			if (lastIndex == INVALID_INDEX) {
+				throw new IllegalStateException();
+			}
+			parent.remove(offset + lastIndex);
+			nextIndex = lastIndex;
+			lastIndex = INVALID_INDEX;
+			size--;
+		}
+	}
+
+	/**
+	 * An iterator of the view that uses an iterator of the parent list, for the parent
+	 * lists without constant time access by index, so it only has to skip the elements
+	 * before the view once.
+	 */
+	private class SubListIterator implements Iterator<E> {
+
+		private final Iterator<E> parentIterator;
+		private int nextIndex = 0;
+
+		/**
+		 * Creates a new iterator of the view, placed before its first element.
+		 */
+		private SubListIterator() {
+			parentIterator = parent.iterator();
+			for (int i = 0; i < offset; i++) {
+				parentIterator.next();
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return nextIndex < size;
+		}
+
+		@Override
+		public E next() throws NoSuchElementException {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No next element");
+			}
+			nextIndex++;
+			return parentIterator.next();
+		}
+
+		@Override
+		public void remove() throws IllegalStateException {
+			parentIterator.remove();
+			nextIndex--;
+			size--;
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return (parent instanceof RandomAccess) ? new IndexedSubListIterator() : new SubListIterator();
+	}
+}
@@ -0,0 +1,635 @@
+package mnds.list;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The unrolled linked implementation of the List ADT.
+ * <p>
+ * Every node of the linked list holds a small array of elements, so iterating reads
+ * the elements of a node one after another and follows a link only once per node.
+ * Inserting in a full node splits it in two halves, and a node that falls under half
+ * of its capacity after a removal takes elements from the next node or merges with it.
+ * <p>
+ * The list can optionally keep an index layer: a directory with the nodes in order and
+ * the index of the first element of each one. The node of an index is then found with a
+ * binary search, so get takes logarithmic time instead of walking the nodes, at the cost
+ * of updating the directory on every insertion and removal.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the list.
+ */
+public class UnrolledLinkedList<E> implements List<E> {
+
+	private Node<E> first = null;
+	private Node<E> last = null;
+	private int size = 0;
+	private int nodesCount = 0;
+	private final int nodeCapacity;
+
+	// The index layer, only kept if the list is indexed.
+	private final boolean indexed;
+	private Node<E>[] directory;
+	private int[] firstIndexes;
+
+	// The position of the last located index: its node, its offset in the node
+	// and the position of the node in the list.
+	private Node<E> locatedNode;
+	private int locatedOffset;
+	private int locatedPosition;
+
+	private static final int DEFAULT_NODE_CAPACITY = 64;
+	private static final int INITIAL_DIRECTORY_LENGTH = 16;
+
+	private static class Node<E> {
+		private E[] elements;
+		private int count = 0;
+		private Node<E> next = null;
+		private Node<E> previous = null;
+
+		/**
+		 * Creates an empty node.
+		 * @param capacity The maximum number of elements of the node.
+		 */
+		@SuppressWarnings("unchecked")
+		private Node(int capacity) {
+			elements = (E[]) new Object[capacity];
+		}
+	}
+
+	/**
+	 * Creates an UnrolledLinkedList with the default node capacity and no index layer.
+	 */
+	public UnrolledLinkedList() {
+		this(DEFAULT_NODE_CAPACITY, false);
+	}
+
+	/**
+	 * Creates an UnrolledLinkedList with the indicated node capacity and no index layer.
+	 * @param nodeCapacity The maximum number of elements of each node.
+	 * @throws IllegalArgumentException If the node capacity is less than 2.
+	 */
+	public UnrolledLinkedList(int nodeCapacity) throws IllegalArgumentException {
+		this(nodeCapacity, false);
+	}
+
+	/**
+	 * Creates an UnrolledLinkedList with the indicated node capacity.
+	 * @param nodeCapacity The maximum number of elements of each node.
+	 * @param indexed true to keep the index layer that makes get logarithmic.
+	 * @throws IllegalArgumentException If the node capacity is less than 2.
+	 */
+	@SuppressWarnings("unchecked")
+	public UnrolledLinkedList(int nodeCapacity, boolean indexed) throws IllegalArgumentException {
+		if (nodeCapacity < 2) {
+			throw new IllegalArgumentException("Invalid node capacity");
+		}
+		this.nodeCapacity = nodeCapacity;
+		this.indexed = indexed;
+		if (indexed) {
+			directory = (Node<E>[]) new Node<?>[INITIAL_DIRECTORY_LENGTH];
+			firstIndexes = new int[INITIAL_DIRECTORY_LENGTH];
+		}
+	}
+
+	@Override
+	public void add(int index, E element) throws IndexOutOfBoundsException {
+
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		if (size == 0) {
+			Node<E> newNode = new Node<E>(nodeCapacity);
+			newNode.elements[0] = element;
+			newNode.count = 1;
+			link(null, newNode);
+			directoryInsert(0, newNode, 0);
+			size = 1;
+			return;
+		}
+
+		locate(index);
+		Node<E> node = locatedNode;
+		int offset = locatedOffset;
+		int position = locatedPosition;
+
+		if (node.count == nodeCapacity) {
+			if (offset == nodeCapacity) {
+				// Appending after a full last node starts a new node.
+				Node<E> newNode = new Node<E>(nodeCapacity);
+				newNode.elements[0] = element;
+				newNode.count = 1;
+				link(node, newNode);
+				directoryInsert(position + 1, newNode, index);
+				size++;
+				return;
+			}
+			// Split the node, moving its upper half to a new node after it.
+			int half = nodeCapacity / 2;
+			Node<E> newNode = splitNode(node, half);
+			directoryInsert(position + 1, newNode, index - offset + half);
+			if (offset > half) {
+				node = newNode;
+				offset -= half;
+				position++;
+			}
+		}
+
+		System.arraycopy(node.elements, offset, node.elements, offset + 1, node.count - offset);
+		node.elements[offset] = element;
+		node.count++;
+		size++;
+		shiftFirstIndexes(position + 1, 1);
+	}
+
+	@Override
+	public E get(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		locate(index);
+		return locatedNode.elements[locatedOffset];
+	}
+
+	@Override
+	public E remove(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException();
+		}
+		locate(index);
+		return removeAt(locatedNode, locatedOffset, locatedPosition);
+	}
+
+	@Override
+	public int indexOf(E element) {
+		int start = 0;
+		for (Node<E> node = first; node != null; node = node.next) {
+			for (int i = 0; i < node.count; i++) {
+				if (element.equals(node.elements[i])) {
+					return start + i;
+				}
+			}
+			start += node.count;
+		}
+		return -1;
+	}
+
+	@Override
+	public void clear() {
+		first = null;
+		last = null;
+		locatedNode = null;
+		size = 0;
+		nodesCount = 0;
+		if (indexed) {
+			Arrays.fill(directory, null);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void addAll(int index, List<? extends E> list) throws IndexOutOfBoundsException {
+
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		// The elements are copied first in case the list is this one or a view of it.
+		Object[] newElements = list.toArray();
+		if (newElements.length == 0) {
+			return;
+		}
+
+		// Build a chain of full nodes and link it at a node boundary.
+		Node<E> previous = splitAt(index);
+		Node<E> boundary = previous;
+		int copied = 0;
+		while (copied < newElements.length) {
+			Node<E> newNode = new Node<E>(nodeCapacity);
+			int count = Math.min(nodeCapacity, newElements.length - copied);
+			System.arraycopy(newElements, copied, newNode.elements, 0, count);
+			newNode.count = count;
+			link(previous, newNode);
+			previous = newNode;
+			copied += count;
+		}
+		size += newElements.length;
+
+		compact(previous);
+		compact(boundary);
+		rebuildDirectory();
+	}
+
+	@Override
+	public void removeRange(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+
+		if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (fromIndex == toIndex) {
+			return;
+		}
+
+		// Make node boundaries at both ends and unlink the whole nodes between them.
+		Node<E> previous = splitAt(fromIndex);
+		Node<E> lastRemoved = splitAt(toIndex);
+		Node<E> node = (previous == null) ? first : previous.next;
+		while (true) {
+			Node<E> next = node.next;
+			unlink(node);
+			if (node == lastRemoved) {
+				break;
+			}
+			node = next;
+		}
+		size -= toIndex - fromIndex;
+
+		compact(previous);
+		rebuildDirectory();
+	}
+
+	@Override
+	public void setAll(int index, List<? extends E> list) throws IndexOutOfBoundsException {
+
+		Object[] newElements = list.toArray();
+		if (index < 0 || index > size - newElements.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (newElements.length == 0) {
+			return;
+		}
+
+		locate(index);
+		Node<E> node = locatedNode;
+		int offset = locatedOffset;
+		int copied = 0;
+		while (copied < newElements.length) {
+			int count = Math.min(node.count - offset, newElements.length - copied);
+			System.arraycopy(newElements, copied, node.elements, offset, count);
+			copied += count;
+			node = node.next;
+			offset = 0;
+		}
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		int copied = 0;
+		for (Node<E> node = first; node != null; node = node.next) {
+			System.arraycopy(node.elements, 0, array, copied, node.count);
+			copied += node.count;
+		}
+		return array;
+	}
+
+	@Override
+	public List<E> subList(int fromIndex, int toIndex) throws IndexOutOfBoundsException {
+		return new SubList<E>(this, fromIndex, toIndex);
+	}
+
+	/**
+	 * Finds the node that contains the element at the indicated index, and leaves it in
+	 * the located fields. The size of the list must be the index, in which case the
+	 * position after the last element is located.
+	 * @param index The index to locate. The list must not be empty.
+	 */
+	private void locate(int index) {
+
+		if (index == size) {
+			locatedNode = last;
+			locatedOffset = last.count;
+			locatedPosition = nodesCount - 1;
+			return;
+		}
+
+		if (indexed) {
+			int low = 0;
+			int high = nodesCount - 1;
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+				if (firstIndexes[middle] <= index) {
+					low = middle;
+				} else {
+					high = middle - 1;
+				}
+			}
+			locatedNode = directory[low];
+			locatedOffset = index - firstIndexes[low];
+			locatedPosition = low;
+		} else if (index < size / 2) {
+			Node<E> node = first;
+			int start = 0;
+			int position = 0;
+			while (index >= start + node.count) {
+				start += node.count;
+				node = node.next;
+				position++;
+			}
+			locatedNode = node;
+			locatedOffset = index - start;
+			locatedPosition = position;
+		} else {
+			Node<E> node = last;
+			int start = size - last.count;
+			int position = nodesCount - 1;
+			while (index < start) {
+				node = node.previous;
+				start -= node.count;
+				position--;
+			}
+			locatedNode = node;
+			locatedOffset = index - start;
+			locatedPosition = position;
+		}
+	}
+
+	/**
+	 * Removes the element at the indicated offset of a node. If the node falls under half
+	 * of its capacity it takes elements from the next node or merges with it.
+	 * @param node The node of the element.
+	 * @param offset The offset of the element in the node.
+	 * @param position The position of the node in the list.
+	 * @return The removed element.
+	 */
+	private E removeAt(Node<E> node, int offset, int position) {
+
+		E element = node.elements[offset];
+		System.arraycopy(node.elements, offset + 1, node.elements, offset, node.count - offset - 1);
+		node.count--;
+		node.elements[node.count] = null;
+		size--;
+
+		if (node.count == 0) {
+			unlink(node);
+			directoryRemove(position);
+			shiftFirstIndexes(position, -1);
+			return element;
+		}
+		shiftFirstIndexes(position + 1, -1);
+
+		Node<E> next = node.next;
+		int half = nodeCapacity / 2;
+		if (node.count < half && next != null) {
+			if (node.count + next.count <= nodeCapacity) {
+				System.arraycopy(next.elements, 0, node.elements, node.count, next.count);
+				node.count += next.count;
+				unlink(next);
+				directoryRemove(position + 1);
+			} else {
+				int moved = half - node.count;
+				System.arraycopy(next.elements, 0, node.elements, node.count, moved);
+				System.arraycopy(next.elements, moved, next.elements, 0, next.count - moved);
+				Arrays.fill(next.elements, next.count - moved, next.count, null);
+				node.count += moved;
+				next.count -= moved;
+				if (indexed) {
+					firstIndexes[position + 1] += moved;
+				}
+			}
+		}
+		return element;
+	}
+
+	/**
+	 * Makes sure a node ends right before the indicated index, splitting the node that
+	 * contains it if needed.
+	 * @param index The index where a node must start.
+	 * @return The node that ends before the index, or null if the index is 0.
+	 */
+	private Node<E> splitAt(int index) {
+		if (index == 0) {
+			return null;
+		}
+		if (index == size) {
+			return last;
+		}
+		locate(index);
+		if (locatedOffset == 0) {
+			return locatedNode.previous;
+		}
+		Node<E> newNode = splitNode(locatedNode, locatedOffset);
+		directoryInsert(locatedPosition + 1, newNode, index);
+		return locatedNode;
+	}
+
+	/**
+	 * Moves the elements of a node from the indicated offset on to a new node linked after it.
+	 * @param node The node to split.
+	 * @param offset The offset of the first element to move.
+	 * @return The new node.
+	 */
+	private Node<E> splitNode(Node<E> node, int offset) {
+		Node<E> newNode = new Node<E>(nodeCapacity);
+		int moved = node.count - offset;
+		System.arraycopy(node.elements, offset, newNode.elements, 0, moved);
+		Arrays.fill(node.elements, offset, node.count, null);
+		newNode.count = moved;
+		node.count = offset;
+		link(node, newNode);
+		return newNode;
+	}
+
+	/**
+	 * Merges a node with the next one if both fit in a single node. The index layer
+	 * isn't updated.
+	 * @param node The node to merge, it can be null.
+	 */
+	private void compact(Node<E> node) {
+		if (node == null || node.next == null || node.count + node.next.count > nodeCapacity) {
+			return;
+		}
+		Node<E> next = node.next;
+		System.arraycopy(next.elements, 0, node.elements, node.count, next.count);
+		node.count += next.count;
+		unlink(next);
+	}
+
+	/**
+	 * Links a node after another one.
+	 * @param previous The node after which to link the new one, or null to link it first.
+	 * @param newNode The node to link.
+	 */
+	private void link(Node<E> previous, Node<E> newNode) {
+		Node<E> next = (previous == null) ? first : previous.next;
+		newNode.previous = previous;
+		newNode.next = next;
+		if (previous == null) {
+			first = newNode;
+		} else {
+			previous.next = newNode;
+		}
+		if (next == null) {
+			last = newNode;
+		} else {
+			next.previous = newNode;
+		}
+		nodesCount++;
+	}
+
+	/**
+	 * Unlinks a node from the list.
+	 * @param node The node to unlink.
+	 */
+	private void unlink(Node<E> node) {
+		if (node.previous == null) {
+			first = node.next;
+		} else {
+			node.previous.next = node.next;
+		}
+		if (node.next == null) {
+			last = node.previous;
+		} else {
+			node.next.previous = node.previous;
+		}
+		nodesCount--;
+	}
+
+	/**
+	 * Inserts a node in the index layer. It must be called after the node is linked.
+	 * @param position The position of the node.
+	 * @param node The node to insert.
+	 * @param firstIndex The index of the first element of the node.
+	 */
+	private void directoryInsert(int position, Node<E> node, int firstIndex) {
+		if (!indexed) {
+			return;
+		}
+		if (nodesCount > directory.length) {
+			directory = Arrays.copyOf(directory, directory.length * 2);
+			firstIndexes = Arrays.copyOf(firstIndexes, firstIndexes.length * 2);
+		}
+		System.arraycopy(directory, position, directory, position + 1, nodesCount - 1 - position);
+		System.arraycopy(firstIndexes, position, firstIndexes, position + 1, nodesCount - 1 - position);
+		directory[position] = node;
+		firstIndexes[position] = firstIndex;
+	}
+
+	/**
+	 * Removes a node from the index layer. It must be called after the node is unlinked.
+	 * @param position The position the node had.
+	 */
+	private void directoryRemove(int position) {
+		if (!indexed) {
+			return;
+		}
+		System.arraycopy(directory, position + 1, directory, position, nodesCount - position);
+		System.arraycopy(firstIndexes, position + 1, firstIndexes, position, nodesCount - position);
+		directory[nodesCount] = null;
+	}
+
+	/**
+	 * Adds a value to the first indexes of the nodes from the indicated position on.
+	 * @param position The position of the first node to update.
+	 * @param delta The value to add.
+	 */
+	private void shiftFirstIndexes(int position, int delta) {
+		if (!indexed) {
+			return;
+		}
+		for (int i = position; i < nodesCount; i++) {
+			firstIndexes[i] += delta;
+		}
+	}
+
+	/**
+	 * Builds the index layer again from the linked nodes.
+	 */
+	@SuppressWarnings("unchecked")
+	private void rebuildDirectory() {
+		if (!indexed) {
+			return;
+		}
+		int length = INITIAL_DIRECTORY_LENGTH;
+		while (length < nodesCount) {
+			length *= 2;
+		}
+		if (length != directory.length) {
+			directory = (Node<E>[]) new Node<?>[length];
+			firstIndexes = new int[length];
+		} else {
+			Arrays.fill(directory, null);
+		}
+		int position = 0;
+		int start = 0;
+		for (Node<E> node = first; node != null; node = node.next) {
+			directory[position] = node;
+			firstIndexes[position] = start;
+			start += node.count;
+			position++;
+		}
+	}
+
+	/**
+	 * An iterator that walks the nodes and the elements in each node.
+	 */
+	private class UnrolledLinkedListIterator implements Iterator<E> {
+
+		// The node, the offset and the position of the next element.
+		private Node<E> node = first;
+		private int offset = 0;
+		private int position = 0;
+
+		// The node, the offset and the position of the last returned element.
+		private Node<E> currentNode = null;
+		private int currentOffset;
+		private int currentPosition;
+
+		@Override
+		public boolean hasNext() {
+			return node != null;
+		}
+
+		@Override
+		public E next() throws NoSuchElementException {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No next element");
+			}
+			currentNode = node;
+			currentOffset = offset;
+			currentPosition = position;
+			E element = node.elements[offset];
+			offset++;
+			if (offset == node.count) {
+				node = node.next;
+				offset = 0;
+				position++;
+			}
+			return element;
+		}
+
+		@Override
+		public void remove() throws IllegalStateException {
+			if (currentNode == null) {
+				throw new IllegalStateException();
+			}
+			Node<E> following = currentNode.next;
+			removeAt(currentNode, currentOffset, currentPosition);
+			// Removing only moves elements of the next node to the end of the current one.
+			if (currentNode.count == 0) {
+				node = following;
+				offset = 0;
+				position = currentPosition;
+			} else if (currentOffset < currentNode.count) {
+				node = currentNode;
+				offset = currentOffset;
+				position = currentPosition;
+			} else {
+				node = currentNode.next;
+				offset = 0;
+				position = currentPosition + 1;
+			}
+			currentNode = null;
+		}
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new UnrolledLinkedListIterator();
+	}
+}
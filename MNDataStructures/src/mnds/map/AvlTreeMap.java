@@ -1,12 +1,20 @@
 package mnds.map;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
 import mnds.list.ArrayList;
 import mnds.list.LinkedList;
 import mnds.list.List;
 
 /**
  * The BST (Binary Search Tree) implementation of the sorted map ADT.
- * The BST is auto-balanced using the AVL technique
+ * The BST is auto-balanced using the AVL technique.
+ * Every node keeps the size of its subtree, so the rank of a key, the entry at a
+ * position and the number of entries in an interval are got in logarithmic time.
  * @author Mehdi Nasef.
  *
  * @param <K> The type of the key of the map.
@@ -17,80 +25,213 @@ public class AvlTreeMap<K extends Comparable<K>, V> implements SortedMap<K, V> {
 	private Node root = null;
 	private int entryCount = 0;
 
+	// The nodes from the root to the position of the put or remove in progress. The used
+	// positions are cleared before returning, so the array never keeps removed nodes.
+	private final Node[] path = newNodeArray(MAX_HEIGHT);
+
+	// An AVL tree with less than 2^31 nodes is never higher than 45 levels.
+	private static final int MAX_HEIGHT = 48;
+
 	@Override
 	public void put(K key, V value) {
-		
+
 		if (root == null) {
 			root = new Node(new AvlTreeMapEntry(key, value));
 			entryCount++;
 			return;
 		}
-		
+
 		Node currentNode = root;
-		Node previousNode = null;
-		boolean sameKeyFound = false;
-		
-		do {
-			previousNode = currentNode;
-			if (key.equals(currentNode.entry.key)) {
-				sameKeyFound = true;
-			} else if (key.compareTo(currentNode.entry.key) < 0) {
+		int depth = 0;
+		int comparasionResult = 0;
+
+		while (currentNode != null) {
+			comparasionResult = key.compareTo(currentNode.entry.key);
+			if (comparasionResult == 0) {
+				currentNode.entry.value = value;
+				clearPath(depth);
+				return;
+			}
+			path[depth] = currentNode;
+			depth++;
+			if (comparasionResult < 0) {
 				currentNode = currentNode.leftChild;
 			} else {
 				currentNode = currentNode.rightChild;
 			}
-		} while (currentNode != null && !sameKeyFound);
-		
-		if (sameKeyFound) {
-			previousNode.entry.value = value;
-		} else if (key.compareTo(previousNode.entry.key) < 0) {
-			previousNode.leftChild = new Node(new AvlTreeMapEntry(key, value));
-			entryCount++;
+		}
+
+		Node parent = path[depth - 1];
+		if (comparasionResult < 0) {
+			parent.leftChild = new Node(new AvlTreeMapEntry(key, value));
 		} else {
-			previousNode.rightChild = new Node(new AvlTreeMapEntry(key, value));
-			entryCount++;
+			parent.rightChild = new Node(new AvlTreeMapEntry(key, value));
 		}
+		entryCount++;
+		rebalancePath(depth);
 	}
 
 	@Override
 	public void remove(K key) {
-		root = removeRec(root, key);
-	}
-	
-	/**
-	 * The recursive method to remove a node.
-	 * @param node The root of the subtree.
-	 * @param key The key of the node to be removed.
-	 * @return The new root of the subtree or the tree.
-	 */
-	private Node removeRec(Node node, K key) {
-		if (node == null) {
-			return null;
-		}
-		
-		int comparasionResult = key.compareTo(node.entry.key);
-		
-		if (comparasionResult == 0) {
-			entryCount--;
-			if (node.rightChild != null && node.leftChild != null) {
-				Node leastNode = getLeast(node.rightChild);
-				node.rightChild = removeRec(node.rightChild, key);
-				node.entry = leastNode.entry;
-				entryCount++;
-			} else if (node.leftChild != null) {
+
+		Node node = root;
+		int depth = 0;
+
+		while (node != null) {
+			int comparasionResult = key.compareTo(node.entry.key);
+			if (comparasionResult == 0) {
+				break;
+			}
+			path[depth] = node;
+			depth++;
+			if (comparasionResult < 0) {
 				node = node.leftChild;
 			} else {
 				node = node.rightChild;
 			}
-		} else if (comparasionResult < 0) {
-			node.leftChild = removeRec(node.leftChild, key);
+		}
+
+		if (node == null) {
+			clearPath(depth);
+			return;
+		}
+
+		// A node with two children takes the entry of its successor,
+		// which is removed instead because it has no left child.
+		if (node.leftChild != null && node.rightChild != null) {
+			path[depth] = node;
+			depth++;
+			Node successor = node.rightChild;
+			while (successor.leftChild != null) {
+				path[depth] = successor;
+				depth++;
+				successor = successor.leftChild;
+			}
+			node.entry = successor.entry;
+			node = successor;
+		}
+
+		Node child = (node.leftChild != null) ? node.leftChild : node.rightChild;
+		if (depth == 0) {
+			root = child;
+		} else if (path[depth - 1].leftChild == node) {
+			path[depth - 1].leftChild = child;
 		} else {
-			node.rightChild = removeRec(node.rightChild, key);
+			path[depth - 1].rightChild = child;
+		}
+		entryCount--;
+		rebalancePath(depth);
+	}
+
+	/**
+	 * Updates the heights of the nodes of the path from the bottom up and
+	 * rotates the ones that have become unbalanced.
+	 * @param depth The number of nodes of the path.
+	 */
+	private void rebalancePath(int depth) {
+
+		for (int i = depth - 1; i >= 0; i--) {
+			Node node = path[i];
+			Node balancedNode = balance(node);
+			if (i == 0) {
+				root = balancedNode;
+			} else if (path[i - 1].leftChild == node) {
+				path[i - 1].leftChild = balancedNode;
+			} else {
+				path[i - 1].rightChild = balancedNode;
+			}
+			path[i] = null;
+		}
+	}
+
+	/**
+	 * Clears the nodes of the path without rebalancing them.
+	 * @param depth The number of nodes of the path.
+	 */
+	private void clearPath(int depth) {
+		Arrays.fill(path, 0, depth, null);
+	}
+
+	/**
+	 * Restores the balance of a node whose subtrees heights differ at most by two.
+	 * @param node The root of the subtree to balance.
+	 * @return The new root of the subtree.
+	 */
+	private Node balance(Node node) {
+
+		updateNode(node);
+		int balanceFactor = height(node.leftChild) - height(node.rightChild);
+
+		if (balanceFactor > 1) {
+			if (height(node.leftChild.leftChild) < height(node.leftChild.rightChild)) {
+				node.leftChild = rotateLeft(node.leftChild);
+			}
+			return rotateRight(node);
+		}
+		if (balanceFactor < -1) {
+			if (height(node.rightChild.rightChild) < height(node.rightChild.leftChild)) {
+				node.rightChild = rotateRight(node.rightChild);
+			}
+			return rotateLeft(node);
 		}
-		
 		return node;
 	}
 
+	/**
+	 * Rotates the subtree to the right, its left child becomes its root.
+	 * @param node The root of the subtree.
+	 * @return The new root of the subtree.
+	 */
+	private Node rotateRight(Node node) {
+		Node newRoot = node.leftChild;
+		node.leftChild = newRoot.rightChild;
+		newRoot.rightChild = node;
+		updateNode(node);
+		updateNode(newRoot);
+		return newRoot;
+	}
+
+	/**
+	 * Rotates the subtree to the left, its right child becomes its root.
+	 * @param node The root of the subtree.
+	 * @return The new root of the subtree.
+	 */
+	private Node rotateLeft(Node node) {
+		Node newRoot = node.rightChild;
+		node.rightChild = newRoot.leftChild;
+		newRoot.leftChild = node;
+		updateNode(node);
+		updateNode(newRoot);
+		return newRoot;
+	}
+
+	/**
+	 * Gets the height of a subtree.
+	 * @param node The root of the subtree.
+	 * @return The height of the subtree, 0 if it is empty.
+	 */
+	private int height(Node node) {
+		return (node == null) ? 0 : node.height;
+	}
+
+	/**
+	 * Gets the number of nodes of a subtree.
+	 * @param node The root of the subtree.
+	 * @return The number of nodes of the subtree, 0 if it is empty.
+	 */
+	private int size(Node node) {
+		return (node == null) ? 0 : node.size;
+	}
+
+	/**
+	 * Recomputes the height and the size of a node from the ones of its children.
+	 * @param node The node that is updated.
+	 */
+	private void updateNode(Node node) {
+		node.height = 1 + Math.max(height(node.leftChild), height(node.rightChild));
+		node.size = 1 + size(node.leftChild) + size(node.rightChild);
+	}
+
 	@Override
 	public V get(K key) {
 		
@@ -152,17 +293,118 @@ public class AvlTreeMap<K extends Comparable<K>, V> implements SortedMap<K, V> {
 	@Override
 	public List<Entry<K, V>> entries() {
 		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>(entryCount);
-		entriesInorderRec(root, entriesList);
+		entriesInorder(entriesList);
 		return entriesList;
 	}
 	
-	public void entriesInorderRec(Node node, List<Entry<K, V>> list) {
-		if (node == null) {
-			return;
+	/**
+	 * Puts all the entries in the list in order. The tree is walked with a stack
+	 * instead of recursion.
+	 * @param list The list in which the entries are put.
+	 */
+	private void entriesInorder(List<Entry<K, V>> list) {
+
+		Node[] stack = newNodeArray(MAX_HEIGHT);
+		int top = 0;
+		Node node = root;
+
+		while (node != null || top > 0) {
+			while (node != null) {
+				stack[top] = node;
+				top++;
+				node = node.leftChild;
+			}
+			top--;
+			node = stack[top];
+			list.add(list.size(), node.entry);
+			node = node.rightChild;
+		}
+	}
+
+	/**
+	 * Gets a spliterator over the entries of the map in ascending order of keys. It splits
+	 * the range of positions in halves and finds where each part starts going down the
+	 * subtrees by their sizes, so the size of every split part is known.
+	 * The map must not be modified while the spliterator is used.
+	 * @return The spliterator of the entries of the map.
+	 */
+	public Spliterator<Entry<K, V>> entriesSpliterator() {
+		return new AvlTreeMapSpliterator(0, entryCount);
+	}
+
+	/**
+	 * Gets the number of keys less than the indicated one.
+	 * @param key The key to get its rank.
+	 * @return The number of keys of the map that are less than the key. It is the
+	 * index the key has, or would have, in the ordered list of entries.
+	 */
+	public int rank(K key) {
+
+		Node node = root;
+		int rank = 0;
+
+		while (node != null) {
+			if (key.compareTo(node.entry.key) <= 0) {
+				node = node.leftChild;
+			} else {
+				rank += size(node.leftChild) + 1;
+				node = node.rightChild;
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * Gets the entry with the indicated position in the order of the keys.
+	 * @param index The position of the entry, 0 for the entry with the least key.
+	 * @return The entry at the position.
+	 * @throws IndexOutOfBoundsException If the index is negative or it isn't less
+	 * than the size of the map.
+	 */
+	public Entry<K, V> select(int index) throws IndexOutOfBoundsException {
+
+		if (index < 0 || index >= entryCount) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		Node node = root;
+		while (true) {
+			int leftSize = size(node.leftChild);
+			if (index < leftSize) {
+				node = node.leftChild;
+			} else if (index == leftSize) {
+				return node.entry;
+			} else {
+				index -= leftSize + 1;
+				node = node.rightChild;
+			}
+		}
+	}
+
+	/**
+	 * Counts the entries with keys in the indicated interval without visiting them.
+	 * @param least The least key of the interval.
+	 * @param greatest The greatest key of the interval.
+	 * @return The number of entries with keys in the interval.
+	 */
+	public int countInInterval(K least, K greatest) {
+
+		if (greatest.compareTo(least) < 0) {
+			return 0;
+		}
+
+		// The number of keys less than or equal to the greatest one.
+		Node node = root;
+		int upToGreatest = 0;
+		while (node != null) {
+			if (greatest.compareTo(node.entry.key) < 0) {
+				node = node.leftChild;
+			} else {
+				upToGreatest += size(node.leftChild) + 1;
+				node = node.rightChild;
+			}
 		}
-		entriesInorderRec(node.leftChild, list);
-		list.add(list.size() - 1, node.entry);
-		entriesInorderRec(node.rightChild, list);
+		return upToGreatest - rank(least);
 	}
 
 	@Override
@@ -180,82 +422,41 @@ public class AvlTreeMap<K extends Comparable<K>, V> implements SortedMap<K, V> {
 	@Override
 	public List<Entry<K, V>> entriesInInterval(K least, K greatest) {
 		List<Entry<K, V>> entriesList = new LinkedList<Entry<K, V>>();
-		entriesInIntervalRec(root, least, greatest, entriesList);
-		return entriesList;
-	}
-	
-	/**
-	 * Gets the entries in the indicated interval.
-	 * @param node The node to be processed.
-	 * @param least The least key of the interval.
-	 * @param greatest The greatest key of the interval.
-	 * @param list The list in which the entries are put.
-	 */
-	private void entriesInIntervalRec(Node node, K least, K greatest, List<Entry<K , V>> list) {
-		if (node == null) {
-			return;
-		}
-		if (node.leftChild != null && least.compareTo(node.leftChild.entry.key) <= 0) {
-			entriesInIntervalRec(node.leftChild, least, greatest, list);
-		}
-		if (least.compareTo(node.entry.key) <= 0 && greatest.compareTo(node.entry.key) >= 0) {
-			list.add(list.size() - 1, node.entry);
-		}
-		if (node.rightChild != null && greatest.compareTo(node.rightChild.entry.key) >= 0) {
-			entriesInIntervalRec(node.rightChild, least, greatest, list);
+		AvlTreeMapCursor cursor = new AvlTreeMapCursor(least, true, Integer.MAX_VALUE, false);
+		while (cursor.next() && greatest.compareTo(cursor.current.entry.key) >= 0) {
+			entriesList.add(entriesList.size(), cursor.current.entry);
 		}
+		return entriesList;
 	}
 
 	@Override
 	public List<Entry<K, V>> ascendentsUpTo(K key) {
 		List<Entry<K, V>> entriesList = new LinkedList<Entry<K, V>>();
-		ascendentsUpToRec(root, key, entriesList);
-		return entriesList;
-	}
-	
-	/**
-	 * Gets The entries with keys up to the indicated key.
-	 * @param node the node to be processed.
-	 * @param key The delimiter key.
-	 * @param list The list in which to deposit the entries.
-	 */
-	public void ascendentsUpToRec(Node node, K key, List<Entry<K, V>> list) {
-		
-		if (node == null) {
-			return;
-		}
-		
-		ascendentsUpToRec(node.leftChild, key, list);
-		
-		if (key.compareTo(node.entry.key) >= 0) {
-			list.add(list.size() - 1, node.entry);
-			ascendentsUpToRec(node.rightChild, key, list);
+		AvlTreeMapCursor cursor = new AvlTreeMapCursor(null, true, Integer.MAX_VALUE, false);
+		while (cursor.next() && key.compareTo(cursor.current.entry.key) >= 0) {
+			entriesList.add(entriesList.size(), cursor.current.entry);
 		}
+		return entriesList;
 	}
  
 	@Override
 	public List<Entry<K, V>> descendentsDownTo(K key) {
-		return null;
-	}
-	
-	/**
-	 * The recursive method to get the entries with keys less than the indicated one.
-	 * @param node
-	 * @param key
-	 * @param list
-	 */
-	public void descendentsDownToRec(Node node, K key, List<Entry<K, V>> list) {
-		if (node == null) {
-			return;
-		}
-		
-		if (node.leftChild != null && key.compareTo(node.leftChild.entry.key) <= 0) {
-			descendentsDownToRec(node.leftChild, key, list);
-		}
-		if (key.compareTo(node.entry.key) <= 0) {
-			list.add(list.size() - 1, node.entry);
+		List<Entry<K, V>> entriesList = new LinkedList<Entry<K, V>>();
+		AvlTreeMapCursor cursor = new AvlTreeMapCursor(null, true, Integer.MAX_VALUE, true);
+		while (cursor.next() && key.compareTo(cursor.current.entry.key) <= 0) {
+			entriesList.add(entriesList.size(), cursor.current.entry);
 		}
-		descendentsDownToRec(node.rightChild, key, list);
+		return entriesList;
+	}
+
+	@Override
+	public Cursor<K, V> ascendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException {
+		return new AvlTreeMapCursor(from, inclusive, limit, false);
+	}
+
+	@Override
+	public Cursor<K, V> descendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException {
+		return new AvlTreeMapCursor(from, inclusive, limit, true);
 	}
 	
 	/**
@@ -312,15 +513,214 @@ public class AvlTreeMap<K extends Comparable<K>, V> implements SortedMap<K, V> {
 		}
 	}
 	
+	/**
+	 * The cursor of the AvlTreeMap. It keeps the nodes whose entries are still to be
+	 * visited and whose subtrees on the side of the direction of the cursor haven't been
+	 * visited yet, so it never holds more nodes than the height of the tree.
+	 */
+	private class AvlTreeMapCursor implements Cursor<K, V> {
+		
+		private final Node[] stack = newNodeArray(MAX_HEIGHT);
+		private int top = 0;
+		private Node current = null;
+		private int remaining;
+		private final boolean descending;
+		
+		/**
+		 * Creates a cursor positioned before the first entry of the range.
+		 * @param from The key where the cursor starts, or null to start at the end of the tree.
+		 * @param inclusive true to include the entry with the key from.
+		 * @param limit The maximum number of entries to go over.
+		 * @param descending true to go over the entries in descending order.
+		 * @throws IllegalArgumentException If the limit is negative.
+		 */
+		private AvlTreeMapCursor(K from, boolean inclusive, int limit, boolean descending)
+				throws IllegalArgumentException {
+			if (limit < 0) {
+				throw new IllegalArgumentException("Negative limit");
+			}
+			this.remaining = limit;
+			this.descending = descending;
+			
+			// Pushes the nodes of the search path that are in the range; each one
+			// is followed in the range by the subtree on the side of the direction.
+			Node node = root;
+			while (node != null) {
+				boolean inRange = true;
+				if (from != null) {
+					int comparasionResult = node.entry.key.compareTo(from);
+					if (descending) {
+						comparasionResult = -comparasionResult;
+					}
+					inRange = comparasionResult > 0 || (inclusive && comparasionResult == 0);
+				}
+				if (inRange) {
+					stack[top] = node;
+					top++;
+					node = descending ? node.rightChild : node.leftChild;
+				} else {
+					node = descending ? node.leftChild : node.rightChild;
+				}
+			}
+		}
+		
+		@Override
+		public boolean next() {
+			if (remaining == 0 || top == 0) {
+				current = null;
+				return false;
+			}
+			top--;
+			current = stack[top];
+			stack[top] = null;
+			remaining--;
+			
+			Node node = descending ? current.leftChild : current.rightChild;
+			while (node != null) {
+				stack[top] = node;
+				top++;
+				node = descending ? node.rightChild : node.leftChild;
+			}
+			return true;
+		}
+		
+		@Override
+		public K key() throws NoSuchElementException {
+			if (current == null) {
+				throw new NoSuchElementException("The cursor isn't on an entry");
+			}
+			return current.entry.key;
+		}
+		
+		@Override
+		public V value() throws NoSuchElementException {
+			if (current == null) {
+				throw new NoSuchElementException("The cursor isn't on an entry");
+			}
+			return current.entry.value;
+		}
+	}
+	
+	/**
+	 * A spliterator over a range of positions of the ordered entries. The stack holds the
+	 * nodes whose entries are still to be visited in in-order, with the next one at the top,
+	 * and it is built when the first entry is got.
+	 */
+	private class AvlTreeMapSpliterator implements Spliterator<Entry<K, V>> {
+
+		private int index;
+		private final int fence;
+		private final Node[] stack = newNodeArray(MAX_HEIGHT);
+		private int top = -1;
+
+		/**
+		 * Creates a spliterator over the entries from the first position, inclusive,
+		 * to the fence, exclusive.
+		 * @param index The position of the first entry.
+		 * @param fence The position after the last entry.
+		 */
+		private AvlTreeMapSpliterator(int index, int fence) {
+			this.index = index;
+			this.fence = fence;
+		}
+
+		/**
+		 * Fills the stack going down from the root to the entry at the current position.
+		 */
+		private void descendToIndex() {
+			top = 0;
+			int remaining = index;
+			Node node = root;
+			while (node != null) {
+				int leftSize = size(node.leftChild);
+				if (remaining < leftSize) {
+					stack[top] = node;
+					top++;
+					node = node.leftChild;
+				} else if (remaining == leftSize) {
+					stack[top] = node;
+					top++;
+					return;
+				} else {
+					remaining -= leftSize + 1;
+					node = node.rightChild;
+				}
+			}
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			if (index >= fence) {
+				return false;
+			}
+			if (top < 0) {
+				descendToIndex();
+			}
+			top--;
+			Node node = stack[top];
+			// The next entry is the least one of the right subtree, if there is one.
+			Node successor = node.rightChild;
+			while (successor != null) {
+				stack[top] = successor;
+				top++;
+				successor = successor.leftChild;
+			}
+			index++;
+			action.accept(node.entry);
+			return true;
+		}
+
+		@Override
+		public Spliterator<Entry<K, V>> trySplit() {
+			int middle = (index + fence) >>> 1;
+			if (middle <= index) {
+				return null;
+			}
+			Spliterator<Entry<K, V>> prefix = new AvlTreeMapSpliterator(index, middle);
+			index = middle;
+			// The stack must be built again for the new position.
+			top = -1;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return fence - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL
+					| Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+
+		@Override
+		public Comparator<? super Entry<K, V>> getComparator() {
+			return (first, second) -> first.key().compareTo(second.key());
+		}
+	}
+
+	/**
+	 * Creates an array of nodes.
+	 * @param length The length of the array.
+	 * @return The new array.
+	 */
+	@SuppressWarnings("unchecked")
+	private Node[] newNodeArray(int length) {
+		return (Node[]) new AvlTreeMap<?, ?>.Node[length];
+	}
+	
 	private class Node {
 		
 		private AvlTreeMapEntry entry;
 		private Node rightChild = null;
 		private Node leftChild = null;
+		private int height = 1;
+		private int size = 1;
 		
 		/**
-		 * Creates a node with the indicated height.
-		 * @param Height The height of the node.
+		 * Creates a leaf node with the indicated entry.
+		 * @param entry The entry of the node.
 		 */
 		private Node(AvlTreeMapEntry entry) {
 			this.entry = entry;
@@ -0,0 +1,761 @@
+package mnds.map;
+
+import java.util.NoSuchElementException;
+
+import mnds.list.ArrayList;
+import mnds.list.List;
+
+/**
+ * The B+ tree implementation of the sorted map ADT.
+ * Every node holds up to order keys in an array, so a search visits only a few
+ * wide nodes. The entries are kept in the leaves, which are linked in both
+ * directions, so the range queries are sequential scans of the leaves.
+ * @author Mehdi Nasef.
+ *
+ * @param <K> The type of the keys of the map.
+ * @param <V> The type of the values of the map.
+ */
+public class BPlusTreeMap<K extends Comparable<K>, V> implements SortedMap<K, V> {
+
+	private final int order;
+	private final int minKeys;
+
+	private Node<K, V> root;
+	private LeafNode<K, V> firstLeaf;
+	private LeafNode<K, V> lastLeaf;
+	private int entryCount = 0;
+
+	// The inner nodes from the root to the leaf of the last put or remove,
+	// and the index of the child taken at each of them.
+	private final InnerNode<K, V>[] pathNodes;
+	private final int[] pathIndexes;
+
+	private static final int DEFAULT_ORDER = 64;
+	private static final int MIN_ORDER = 4;
+
+	// A tree with less than 2^31 entries and at least 3 children per inner node
+	// is never higher than this.
+	private static final int MAX_HEIGHT = 32;
+
+	/**
+	 * Creates a BPlusTreeMap whose nodes hold up to the indicated number of keys.
+	 * @param order The maximum number of keys of a node.
+	 * @throws IllegalArgumentException If the order is less than 4.
+	 */
+	@SuppressWarnings("unchecked")
+	public BPlusTreeMap(int order) throws IllegalArgumentException {
+		if (order < MIN_ORDER) {
+			throw new IllegalArgumentException("The order must be at least " + MIN_ORDER);
+		}
+		this.order = order;
+		this.minKeys = order / 2;
+		this.pathNodes = (InnerNode<K, V>[]) new InnerNode<?, ?>[MAX_HEIGHT];
+		this.pathIndexes = new int[MAX_HEIGHT];
+		clear();
+	}
+
+	/**
+	 * Creates a BPlusTreeMap with the default order.
+	 */
+	public BPlusTreeMap() {
+		this(DEFAULT_ORDER);
+	}
+
+	@Override
+	public void put(K key, V value) {
+
+		int depth = descend(key);
+		LeafNode<K, V> leaf = (LeafNode<K, V>) (depth == 0 ? root : pathNodes[depth - 1].children[pathIndexes[depth - 1]]);
+
+		int index = leaf.search(key);
+		if (index >= 0) {
+			leaf.values[index] = value;
+			return;
+		}
+
+		leaf.insert(-(index + 1), key, value);
+		entryCount++;
+
+		if (leaf.count <= order) {
+			return;
+		}
+
+		// The leaf has one key more than allowed, so it is split and the
+		// splits are propagated up while the parents overflow.
+		Node<K, V> rightNode = splitLeaf(leaf);
+		K separator = rightNode.keys[0];
+
+		for (int i = depth - 1; i >= 0; i--) {
+			InnerNode<K, V> parent = pathNodes[i];
+			parent.insert(pathIndexes[i], separator, rightNode);
+			if (parent.count <= order) {
+				clearPath(depth);
+				return;
+			}
+			separator = parent.keys[parent.count / 2];
+			rightNode = splitInner(parent);
+		}
+
+		InnerNode<K, V> newRoot = new InnerNode<K, V>(order);
+		newRoot.children[0] = root;
+		newRoot.keys[0] = separator;
+		newRoot.children[1] = rightNode;
+		newRoot.count = 1;
+		root = newRoot;
+		clearPath(depth);
+	}
+
+	@Override
+	public void remove(K key) {
+
+		int depth = descend(key);
+		LeafNode<K, V> leaf = (LeafNode<K, V>) (depth == 0 ? root : pathNodes[depth - 1].children[pathIndexes[depth - 1]]);
+
+		int index = leaf.search(key);
+		if (index < 0) {
+			clearPath(depth);
+			return;
+		}
+
+		leaf.delete(index);
+		entryCount--;
+
+		// The nodes that have too few keys borrow one from a sibling or are merged with it.
+		Node<K, V> node = leaf;
+		for (int i = depth - 1; i >= 0 && node.count < minKeys; i--) {
+			InnerNode<K, V> parent = pathNodes[i];
+			int childIndex = pathIndexes[i];
+			if (node instanceof LeafNode) {
+				fixLeaf(parent, childIndex);
+			} else {
+				fixInner(parent, childIndex);
+			}
+			node = parent;
+		}
+
+		// The root is replaced by its only child when it runs out of keys.
+		if (root.count == 0 && root instanceof InnerNode) {
+			root = ((InnerNode<K, V>) root).children[0];
+		}
+		clearPath(depth);
+	}
+
+	@Override
+	public V get(K key) {
+
+		Node<K, V> node = root;
+		while (node instanceof InnerNode) {
+			InnerNode<K, V> inner = (InnerNode<K, V>) node;
+			node = inner.children[inner.childIndex(key)];
+		}
+
+		LeafNode<K, V> leaf = (LeafNode<K, V>) node;
+		int index = leaf.search(key);
+		return (index >= 0) ? leaf.values[index] : null;
+	}
+
+	@Override
+	public void clear() {
+		LeafNode<K, V> leaf = new LeafNode<K, V>(order);
+		root = leaf;
+		firstLeaf = leaf;
+		lastLeaf = leaf;
+		entryCount = 0;
+	}
+
+	@Override
+	public int size() {
+		return entryCount;
+	}
+
+	@Override
+	public List<K> keys() {
+		List<K> keysList = new ArrayList<K>(entryCount);
+		for (LeafNode<K, V> leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			for (int i = 0; i < leaf.count; i++) {
+				keysList.add(keysList.size(), leaf.keys[i]);
+			}
+		}
+		return keysList;
+	}
+
+	@Override
+	public List<V> values() {
+		List<V> valuesList = new ArrayList<V>(entryCount);
+		for (LeafNode<K, V> leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			for (int i = 0; i < leaf.count; i++) {
+				valuesList.add(valuesList.size(), leaf.values[i]);
+			}
+		}
+		return valuesList;
+	}
+
+	@Override
+	public List<Entry<K, V>> entries() {
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>(entryCount);
+		for (LeafNode<K, V> leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			for (int i = 0; i < leaf.count; i++) {
+				entriesList.add(entriesList.size(), new BPlusTreeMapEntry<K, V>(leaf.keys[i], leaf.values[i]));
+			}
+		}
+		return entriesList;
+	}
+
+	@Override
+	public Entry<K, V> firstEntry() {
+		if (entryCount == 0) {
+			return null;
+		}
+		return new BPlusTreeMapEntry<K, V>(firstLeaf.keys[0], firstLeaf.values[0]);
+	}
+
+	@Override
+	public Entry<K, V> lastEntry() {
+		if (entryCount == 0) {
+			return null;
+		}
+		int last = lastLeaf.count - 1;
+		return new BPlusTreeMapEntry<K, V>(lastLeaf.keys[last], lastLeaf.values[last]);
+	}
+
+	@Override
+	public List<Entry<K, V>> entriesInInterval(K least, K greatest) {
+
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>();
+
+		LeafNode<K, V> leaf = findLeaf(least);
+		int index = leaf.search(least);
+		if (index < 0) {
+			index = -(index + 1);
+		}
+
+		while (leaf != null) {
+			for (; index < leaf.count; index++) {
+				if (greatest.compareTo(leaf.keys[index]) < 0) {
+					return entriesList;
+				}
+				entriesList.add(entriesList.size(), new BPlusTreeMapEntry<K, V>(leaf.keys[index], leaf.values[index]));
+			}
+			leaf = leaf.next;
+			index = 0;
+		}
+		return entriesList;
+	}
+
+	@Override
+	public List<Entry<K, V>> ascendentsUpTo(K key) {
+
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>();
+
+		for (LeafNode<K, V> leaf = firstLeaf; leaf != null; leaf = leaf.next) {
+			for (int i = 0; i < leaf.count; i++) {
+				if (key.compareTo(leaf.keys[i]) < 0) {
+					return entriesList;
+				}
+				entriesList.add(entriesList.size(), new BPlusTreeMapEntry<K, V>(leaf.keys[i], leaf.values[i]));
+			}
+		}
+		return entriesList;
+	}
+
+	/**
+	 * Gets the entries with keys greater than or equal to the indicated,
+	 * from the greatest key down to the indicated one.
+	 */
+	@Override
+	public List<Entry<K, V>> descendentsDownTo(K key) {
+
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>();
+
+		for (LeafNode<K, V> leaf = lastLeaf; leaf != null; leaf = leaf.previous) {
+			for (int i = leaf.count - 1; i >= 0; i--) {
+				if (key.compareTo(leaf.keys[i]) > 0) {
+					return entriesList;
+				}
+				entriesList.add(entriesList.size(), new BPlusTreeMapEntry<K, V>(leaf.keys[i], leaf.values[i]));
+			}
+		}
+		return entriesList;
+	}
+
+	@Override
+	public Cursor<K, V> ascendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException {
+		return new BPlusTreeMapCursor(from, inclusive, limit, false);
+	}
+
+	@Override
+	public Cursor<K, V> descendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException {
+		return new BPlusTreeMapCursor(from, inclusive, limit, true);
+	}
+
+	/**
+	 * Goes down from the root to the leaf where the key is or would be,
+	 * recording the inner nodes and the indexes of the children taken.
+	 * @param key The key to look for.
+	 * @return The number of inner nodes recorded in the path.
+	 */
+	private int descend(K key) {
+
+		Node<K, V> node = root;
+		int depth = 0;
+		while (node instanceof InnerNode) {
+			InnerNode<K, V> inner = (InnerNode<K, V>) node;
+			int childIndex = inner.childIndex(key);
+			pathNodes[depth] = inner;
+			pathIndexes[depth] = childIndex;
+			depth++;
+			node = inner.children[childIndex];
+		}
+		return depth;
+	}
+
+	/**
+	 * Gets the leaf where the key is or would be.
+	 * @param key The key to look for.
+	 * @return The leaf where the key belongs.
+	 */
+	private LeafNode<K, V> findLeaf(K key) {
+		Node<K, V> node = root;
+		while (node instanceof InnerNode) {
+			InnerNode<K, V> inner = (InnerNode<K, V>) node;
+			node = inner.children[inner.childIndex(key)];
+		}
+		return (LeafNode<K, V>) node;
+	}
+
+	/**
+	 * Releases the references to the nodes of the path.
+	 * @param depth The number of nodes of the path.
+	 */
+	private void clearPath(int depth) {
+		for (int i = 0; i < depth; i++) {
+			pathNodes[i] = null;
+		}
+	}
+
+	/**
+	 * Moves the upper half of the entries of a leaf to a new leaf on its right.
+	 * @param leaf The leaf to split.
+	 * @return The new leaf.
+	 */
+	private LeafNode<K, V> splitLeaf(LeafNode<K, V> leaf) {
+
+		LeafNode<K, V> right = new LeafNode<K, V>(order);
+		int leftCount = leaf.count / 2;
+		int rightCount = leaf.count - leftCount;
+
+		System.arraycopy(leaf.keys, leftCount, right.keys, 0, rightCount);
+		System.arraycopy(leaf.values, leftCount, right.values, 0, rightCount);
+		for (int i = leftCount; i < leaf.count; i++) {
+			leaf.keys[i] = null;
+			leaf.values[i] = null;
+		}
+		leaf.count = leftCount;
+		right.count = rightCount;
+
+		right.next = leaf.next;
+		right.previous = leaf;
+		if (leaf.next != null) {
+			leaf.next.previous = right;
+		} else {
+			lastLeaf = right;
+		}
+		leaf.next = right;
+
+		return right;
+	}
+
+	/**
+	 * Moves the keys and children above the middle key of an inner node to a new
+	 * node on its right. The middle key is removed from both, it goes up to the parent.
+	 * @param inner The inner node to split.
+	 * @return The new inner node.
+	 */
+	private InnerNode<K, V> splitInner(InnerNode<K, V> inner) {
+
+		InnerNode<K, V> right = new InnerNode<K, V>(order);
+		int middle = inner.count / 2;
+		int rightCount = inner.count - middle - 1;
+
+		System.arraycopy(inner.keys, middle + 1, right.keys, 0, rightCount);
+		System.arraycopy(inner.children, middle + 1, right.children, 0, rightCount + 1);
+		for (int i = middle; i < inner.count; i++) {
+			inner.keys[i] = null;
+			inner.children[i + 1] = null;
+		}
+		inner.count = middle;
+		right.count = rightCount;
+
+		return right;
+	}
+
+	/**
+	 * Fixes a leaf with too few entries by borrowing one from a sibling,
+	 * or by merging it with a sibling if neither can lend one.
+	 * @param parent The parent of the leaf.
+	 * @param childIndex The index of the leaf among the children of the parent.
+	 */
+	private void fixLeaf(InnerNode<K, V> parent, int childIndex) {
+
+		LeafNode<K, V> leaf = (LeafNode<K, V>) parent.children[childIndex];
+		LeafNode<K, V> left = (childIndex > 0) ? (LeafNode<K, V>) parent.children[childIndex - 1] : null;
+		LeafNode<K, V> right = (childIndex < parent.count) ? (LeafNode<K, V>) parent.children[childIndex + 1] : null;
+
+		if (left != null && left.count > minKeys) {
+			int last = left.count - 1;
+			leaf.insert(0, left.keys[last], left.values[last]);
+			left.delete(last);
+			parent.keys[childIndex - 1] = leaf.keys[0];
+		} else if (right != null && right.count > minKeys) {
+			leaf.insert(leaf.count, right.keys[0], right.values[0]);
+			right.delete(0);
+			parent.keys[childIndex] = right.keys[0];
+		} else if (left != null) {
+			mergeLeaves(left, leaf);
+			parent.delete(childIndex - 1);
+		} else {
+			mergeLeaves(leaf, right);
+			parent.delete(childIndex);
+		}
+	}
+
+	/**
+	 * Moves all the entries of a leaf to the leaf on its left and unlinks it.
+	 * @param left The leaf that receives the entries.
+	 * @param right The leaf that is emptied.
+	 */
+	private void mergeLeaves(LeafNode<K, V> left, LeafNode<K, V> right) {
+
+		System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+		System.arraycopy(right.values, 0, left.values, left.count, right.count);
+		left.count += right.count;
+
+		left.next = right.next;
+		if (right.next != null) {
+			right.next.previous = left;
+		} else {
+			lastLeaf = left;
+		}
+	}
+
+	/**
+	 * Fixes an inner node with too few keys by rotating a key through the parent
+	 * from a sibling, or by merging it with a sibling if neither can lend one.
+	 * @param parent The parent of the inner node.
+	 * @param childIndex The index of the inner node among the children of the parent.
+	 */
+	private void fixInner(InnerNode<K, V> parent, int childIndex) {
+
+		InnerNode<K, V> inner = (InnerNode<K, V>) parent.children[childIndex];
+		InnerNode<K, V> left = (childIndex > 0) ? (InnerNode<K, V>) parent.children[childIndex - 1] : null;
+		InnerNode<K, V> right = (childIndex < parent.count) ? (InnerNode<K, V>) parent.children[childIndex + 1] : null;
+
+		if (left != null && left.count > minKeys) {
+			System.arraycopy(inner.keys, 0, inner.keys, 1, inner.count);
+			System.arraycopy(inner.children, 0, inner.children, 1, inner.count + 1);
+			inner.keys[0] = parent.keys[childIndex - 1];
+			inner.children[0] = left.children[left.count];
+			inner.count++;
+			parent.keys[childIndex - 1] = left.keys[left.count - 1];
+			left.keys[left.count - 1] = null;
+			left.children[left.count] = null;
+			left.count--;
+		} else if (right != null && right.count > minKeys) {
+			inner.keys[inner.count] = parent.keys[childIndex];
+			inner.children[inner.count + 1] = right.children[0];
+			inner.count++;
+			parent.keys[childIndex] = right.keys[0];
+			System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+			System.arraycopy(right.children, 1, right.children, 0, right.count);
+			right.keys[right.count - 1] = null;
+			right.children[right.count] = null;
+			right.count--;
+		} else if (left != null) {
+			mergeInner(left, parent.keys[childIndex - 1], inner);
+			parent.delete(childIndex - 1);
+		} else {
+			mergeInner(inner, parent.keys[childIndex], right);
+			parent.delete(childIndex);
+		}
+	}
+
+	/**
+	 * Moves the separator and all the keys and children of an inner node to its left sibling.
+	 * @param left The node that receives the keys.
+	 * @param separator The key of the parent between both nodes.
+	 * @param right The node that is emptied.
+	 */
+	private void mergeInner(InnerNode<K, V> left, K separator, InnerNode<K, V> right) {
+		left.keys[left.count] = separator;
+		System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+		System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+		left.count += right.count + 1;
+	}
+
+	/**
+	 * The cursor of the BPlusTreeMap. It only holds the leaf and the index
+	 * of the next entry, and moves along the links of the leaves.
+	 */
+	private class BPlusTreeMapCursor implements Cursor<K, V> {
+
+		private LeafNode<K, V> nextLeaf;
+		private int nextIndex;
+		private LeafNode<K, V> currentLeaf = null;
+		private int currentIndex;
+		private int remaining;
+		private final boolean descending;
+
+		/**
+		 * Creates a cursor positioned before the first entry of the range.
+		 * @param from The key where the cursor starts, or null to start at the end of the tree.
+		 * @param inclusive true to include the entry with the key from.
+		 * @param limit The maximum number of entries to go over.
+		 * @param descending true to go over the entries in descending order.
+		 * @throws IllegalArgumentException If the limit is negative.
+		 */
+		private BPlusTreeMapCursor(K from, boolean inclusive, int limit, boolean descending)
+				throws IllegalArgumentException {
+			if (limit < 0) {
+				throw new IllegalArgumentException("Negative limit");
+			}
+			this.remaining = limit;
+			this.descending = descending;
+
+			if (from == null) {
+				nextLeaf = descending ? lastLeaf : firstLeaf;
+				nextIndex = descending ? nextLeaf.count - 1 : 0;
+				return;
+			}
+
+			nextLeaf = findLeaf(from);
+			int index = nextLeaf.search(from);
+			if (index >= 0) {
+				if (!inclusive) {
+					index = descending ? index - 1 : index + 1;
+				}
+			} else {
+				// The insertion index is the first key greater than from.
+				index = descending ? -(index + 1) - 1 : -(index + 1);
+			}
+			nextIndex = index;
+		}
+
+		@Override
+		public boolean next() {
+
+			if (remaining == 0) {
+				currentLeaf = null;
+				return false;
+			}
+
+			// Skips to the neighbor leaf when the index goes past the end of the current one.
+			while (nextLeaf != null && (nextIndex < 0 || nextIndex >= nextLeaf.count)) {
+				if (descending) {
+					nextLeaf = nextLeaf.previous;
+					nextIndex = (nextLeaf != null) ? nextLeaf.count - 1 : 0;
+				} else {
+					nextLeaf = nextLeaf.next;
+					nextIndex = 0;
+				}
+			}
+
+			if (nextLeaf == null) {
+				currentLeaf = null;
+				return false;
+			}
+
+			currentLeaf = nextLeaf;
+			currentIndex = nextIndex;
+			nextIndex = descending ? nextIndex - 1 : nextIndex + 1;
+			remaining--;
+			return true;
+		}
+
+		@Override
+		public K key() throws NoSuchElementException {
+			if (currentLeaf == null) {
+				throw new NoSuchElementException("The cursor isn't on an entry");
+			}
+			return currentLeaf.keys[currentIndex];
+		}
+
+		@Override
+		public V value() throws NoSuchElementException {
+			if (currentLeaf == null) {
+				throw new NoSuchElementException("The cursor isn't on an entry");
+			}
+			return currentLeaf.values[currentIndex];
+		}
+	}
+
+	/**
+	 * A node of the tree. It has room for one key more than the order,
+	 * so a node can overflow before being split.
+	 */
+	private abstract static class Node<K extends Comparable<K>, V> {
+
+		protected final K[] keys;
+		protected int count = 0;
+
+		@SuppressWarnings("unchecked")
+		private Node(int order) {
+			keys = (K[]) new Comparable<?>[order + 1];
+		}
+	}
+
+	/**
+	 * A node that holds the separator keys and the children between them.
+	 * All the keys of children[i] are less than keys[i], which is less than
+	 * or equal to all the keys of children[i + 1].
+	 */
+	private static final class InnerNode<K extends Comparable<K>, V> extends Node<K, V> {
+
+		private final Node<K, V>[] children;
+
+		@SuppressWarnings("unchecked")
+		private InnerNode(int order) {
+			super(order);
+			children = (Node<K, V>[]) new Node<?, ?>[order + 2];
+		}
+
+		/**
+		 * Gets the index of the child whose subtree would contain the key.
+		 * @param key The key to look for.
+		 * @return The index of the child.
+		 */
+		private int childIndex(K key) {
+			int low = 0;
+			int high = count;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (key.compareTo(keys[middle]) < 0) {
+					high = middle;
+				} else {
+					low = middle + 1;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * Inserts a key and the child on its right after the indicated child.
+		 * @param childIndex The index of the child on the left of the new key.
+		 * @param key The new separator key.
+		 * @param child The new child.
+		 */
+		private void insert(int childIndex, K key, Node<K, V> child) {
+			System.arraycopy(keys, childIndex, keys, childIndex + 1, count - childIndex);
+			System.arraycopy(children, childIndex + 1, children, childIndex + 2, count - childIndex);
+			keys[childIndex] = key;
+			children[childIndex + 1] = child;
+			count++;
+		}
+
+		/**
+		 * Deletes a key and the child on its right.
+		 * @param keyIndex The index of the key to delete.
+		 */
+		private void delete(int keyIndex) {
+			System.arraycopy(keys, keyIndex + 1, keys, keyIndex, count - keyIndex - 1);
+			System.arraycopy(children, keyIndex + 2, children, keyIndex + 1, count - keyIndex - 1);
+			count--;
+			keys[count] = null;
+			children[count + 1] = null;
+		}
+	}
+
+	/**
+	 * A node that holds the entries of the map, sorted by key.
+	 */
+	private static final class LeafNode<K extends Comparable<K>, V> extends Node<K, V> {
+
+		private final V[] values;
+		private LeafNode<K, V> next = null;
+		private LeafNode<K, V> previous = null;
+
+		@SuppressWarnings("unchecked")
+		private LeafNode(int order) {
+			super(order);
+			values = (V[]) new Object[order + 1];
+		}
+
+		/**
+		 * Searches the key in the leaf.
+		 * @param key The key to look for.
+		 * @return The index of the key if it is in the leaf, or -(insertionIndex + 1)
+		 * where insertionIndex is the index where the key would be inserted.
+		 */
+		private int search(K key) {
+			int low = 0;
+			int high = count - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int comparasionResult = key.compareTo(keys[middle]);
+				if (comparasionResult == 0) {
+					return middle;
+				} else if (comparasionResult < 0) {
+					high = middle - 1;
+				} else {
+					low = middle + 1;
+				}
+			}
+			return -(low + 1);
+		}
+
+		/**
+		 * Inserts an entry at the indicated index.
+		 * @param index The index of the new entry.
+		 * @param key The key of the entry.
+		 * @param value The value of the entry.
+		 */
+		private void insert(int index, K key, V value) {
+			System.arraycopy(keys, index, keys, index + 1, count - index);
+			System.arraycopy(values, index, values, index + 1, count - index);
+			keys[index] = key;
+			values[index] = value;
+			count++;
+		}
+
+		/**
+		 * Deletes the entry at the indicated index.
+		 * @param index The index of the entry to delete.
+		 */
+		private void delete(int index) {
+			System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+			System.arraycopy(values, index + 1, values, index, count - index - 1);
+			count--;
+			keys[count] = null;
+			values[count] = null;
+		}
+	}
+
+	/**
+	 * The entry of the BPlusTreeMap. It is a copy of the key and the value
+	 * at the moment it is created.
+	 */
+	private static final class BPlusTreeMapEntry<K, V> implements Entry<K, V> {
+
+		private final K key;
+		private final V value;
+
+		/**
+		 * Creates an entry with the indicated key and value.
+		 * @param key The key of the entry.
+		 * @param value The value of the entry.
+		 */
+		private BPlusTreeMapEntry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K key() {
+			return key;
+		}
+
+		@Override
+		public V value() {
+			return value;
+		}
+	}
+}
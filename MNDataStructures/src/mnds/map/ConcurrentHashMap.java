@@ -0,0 +1,727 @@
+package mnds.map;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import mnds.list.ArrayList;
+import mnds.list.List;
+import mnds.stack.ArrayStack;
+
+/**
+ * The thread safe hash table implementation of the map ADT.
+ * <p>
+ * The table is an array of bins, each one a linked list of nodes. Reads don't lock:
+ * the bins are read with acquire semantics and the values and links of the nodes are
+ * volatile. The writes lock only the first node of the bin they modify, and a node
+ * is put in an empty bin with a compare-and-set. When the table grows, every thread
+ * that tries to write to a bin that has already been moved helps to move the
+ * remaining bins to the new table, a range of bins at a time.
+ * <p>
+ * The keys and the values can't be null. The iterators and the lists of keys,
+ * values and entries are weakly consistent: they reflect the state of the map at
+ * some point at or since their creation, and never throw because of concurrent writes.
+ * @author Mehdi Nasef.
+ *
+ * @param <K> The type of the keys of the map.
+ * @param <V> The type of the values of the map.
+ */
+public class ConcurrentHashMap<K, V> implements Map<K, V> {
+
+	private volatile Node<K, V>[] table;
+	private volatile Transfer<K, V> transfer = null;
+	private volatile int resizeThreshold;
+	private final LongAdder entriesCount = new LongAdder();
+	private final Object resizeLock = new Object();
+
+	// The hashes of the special nodes. The hashes of the keys are never negative.
+	private static final int MOVED = -1;
+	private static final int RESERVED = -2;
+	private static final int HASH_BITS = 0x7fffffff;
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 16;
+	private static final int MAX_TABLE_LENGTH = 1 << 30;
+	private static final int MIN_TRANSFER_STRIDE = 16;
+	private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
+	private static final VarHandle BIN = MethodHandles.arrayElementVarHandle(Node[].class);
+
+	/**
+	 * Creates a ConcurrentHashMap with the indicated initial capacity.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @throws IllegalArgumentException If the initial capacity is negative.
+	 */
+	public ConcurrentHashMap(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Negative initial capacity");
+		}
+		int tableLength = 2;
+		while (tableLength < MAX_TABLE_LENGTH && thresholdFor(tableLength) <= initialCapacity) {
+			tableLength *= 2;
+		}
+		table = newTable(tableLength);
+		resizeThreshold = thresholdFor(tableLength);
+	}
+
+	/**
+	 * Creates a ConcurrentHashMap with the default initial capacity.
+	 */
+	public ConcurrentHashMap() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	@Override
+	public void put(K key, V value) {
+		putValue(key, value, false);
+	}
+
+	/**
+	 * Puts the value in the map only if there is no value associated to the key.
+	 * The check and the put are done atomically.
+	 * @param key The key associated to the value.
+	 * @param value The value to be put in the map.
+	 * @return The value already associated to the key, or null if the value has been put.
+	 */
+	public V putIfAbsent(K key, V value) {
+		return putValue(key, value, true);
+	}
+
+	/**
+	 * If the key has no value, computes one with the mapping function and puts it in
+	 * the map. The whole operation is atomic, so the function is called at most once
+	 * per absent key. Other writes to the same bin wait while the function is running,
+	 * so it should be short and it must not modify the map.
+	 * @param key The key whose value is got or computed.
+	 * @param mappingFunction The function that computes the value of the key.
+	 * If it returns null nothing is put in the map.
+	 * @return The current or the computed value associated to the key, or null if
+	 * the computed value is null.
+	 * @throws IllegalStateException If the mapping function modifies the bin of the key.
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction)
+			throws IllegalStateException {
+
+		if (key == null || mappingFunction == null) {
+			throw new NullPointerException();
+		}
+
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+
+		while (true) {
+			int index = (tab.length - 1) & hash;
+			Node<K, V> first = binAt(tab, index);
+
+			if (first == null) {
+				// The bin is reserved while the value is computed so no other thread can fill it.
+				Node<K, V> reservation = new Node<K, V>(RESERVED, null, null, null);
+				synchronized (reservation) {
+					if (casBinAt(tab, index, null, reservation)) {
+						V value = null;
+						Node<K, V> node = null;
+						try {
+							value = mappingFunction.apply(key);
+							if (value != null) {
+								node = new Node<K, V>(hash, key, value, null);
+							}
+						} finally {
+							setBinAt(tab, index, node);
+						}
+						if (node != null) {
+							addCount(tab);
+						}
+						return value;
+					}
+				}
+			} else if (first.hash == MOVED) {
+				tab = helpTransfer(tab, (ForwardingNode<K, V>) first);
+			} else {
+				// The value is often there already, so look for it without locking first.
+				V value = find(first, hash, key);
+				if (value != null) {
+					return value;
+				}
+				boolean done = false;
+				boolean added = false;
+				synchronized (first) {
+					if (binAt(tab, index) == first) {
+						checkNotReserved(first);
+						Node<K, V> node = first;
+						while (true) {
+							if (node.hash == hash && (node.key == key || key.equals(node.key))) {
+								value = node.value;
+								break;
+							}
+							if (node.next == null) {
+								value = mappingFunction.apply(key);
+								if (value != null) {
+									node.next = new Node<K, V>(hash, key, value, null);
+									added = true;
+								}
+								break;
+							}
+							node = node.next;
+						}
+						done = true;
+					}
+				}
+				if (done) {
+					if (added) {
+						addCount(tab);
+					}
+					return value;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void remove(K key) {
+
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+
+		while (true) {
+			int index = (tab.length - 1) & hash;
+			Node<K, V> first = binAt(tab, index);
+
+			if (first == null) {
+				return;
+			} else if (first.hash == MOVED) {
+				tab = helpTransfer(tab, (ForwardingNode<K, V>) first);
+			} else {
+				boolean done = false;
+				boolean removed = false;
+				synchronized (first) {
+					if (binAt(tab, index) == first) {
+						checkNotReserved(first);
+						Node<K, V> previous = null;
+						for (Node<K, V> node = first; node != null; node = node.next) {
+							if (node.hash == hash && (node.key == key || key.equals(node.key))) {
+								if (previous == null) {
+									setBinAt(tab, index, node.next);
+								} else {
+									previous.next = node.next;
+								}
+								removed = true;
+								break;
+							}
+							previous = node;
+						}
+						done = true;
+					}
+				}
+				if (done) {
+					if (removed) {
+						entriesCount.decrement();
+					}
+					return;
+				}
+			}
+		}
+	}
+
+	@Override
+	public V get(K key) {
+
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+
+		while (true) {
+			Node<K, V> first = binAt(tab, (tab.length - 1) & hash);
+			if (first == null) {
+				return null;
+			}
+			if (first.hash != MOVED) {
+				return find(first, hash, key);
+			}
+			tab = ((ForwardingNode<K, V>) first).nextTable;
+		}
+	}
+
+	@Override
+	public void clear() {
+
+		Node<K, V>[] tab = table;
+		int index = 0;
+
+		while (index < tab.length) {
+			Node<K, V> first = binAt(tab, index);
+			if (first == null) {
+				index++;
+			} else if (first.hash == MOVED) {
+				tab = helpTransfer(tab, (ForwardingNode<K, V>) first);
+				index = 0;
+			} else {
+				synchronized (first) {
+					if (binAt(tab, index) == first) {
+						checkNotReserved(first);
+						int removedCount = 0;
+						for (Node<K, V> node = first; node != null; node = node.next) {
+							removedCount++;
+						}
+						setBinAt(tab, index, null);
+						entriesCount.add(-removedCount);
+						index++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of entries of the map. The count is exact only when
+	 * no other thread is modifying the map.
+	 * @return The number of entries of the map.
+	 */
+	@Override
+	public int size() {
+		long count = entriesCount.sum();
+		if (count < 0) {
+			return 0;
+		}
+		return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+	}
+
+	@Override
+	public List<K> keys() {
+		List<K> keysList = new ArrayList<K>();
+		Iterator<Entry<K, V>> iter = entriesIterator();
+		while (iter.hasNext()) {
+			keysList.add(keysList.size(), iter.next().key());
+		}
+		return keysList;
+	}
+
+	@Override
+	public List<V> values() {
+		List<V> valuesList = new ArrayList<V>();
+		Iterator<Entry<K, V>> iter = entriesIterator();
+		while (iter.hasNext()) {
+			valuesList.add(valuesList.size(), iter.next().value());
+		}
+		return valuesList;
+	}
+
+	@Override
+	public List<Entry<K, V>> entries() {
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>();
+		Iterator<Entry<K, V>> iter = entriesIterator();
+		while (iter.hasNext()) {
+			entriesList.add(entriesList.size(), iter.next());
+		}
+		return entriesList;
+	}
+
+	/**
+	 * Gets a weakly consistent iterator over the entries of the map. It can be used
+	 * while other threads modify the map. Every entry that is in the map during the
+	 * whole iteration is returned exactly once, the others may or may not be returned.
+	 * @return An iterator over the entries of the map.
+	 */
+	public Iterator<Entry<K, V>> entriesIterator() {
+		return new EntriesIterator<K, V>(table);
+	}
+
+	/**
+	 * Puts a value in the map.
+	 * @param key The key associated to the value.
+	 * @param value The value to be put in the map.
+	 * @param onlyIfAbsent true to keep the current value if the key has one.
+	 * @return The previous value associated to the key, or null if there was none.
+	 */
+	private V putValue(K key, V value, boolean onlyIfAbsent) {
+
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+
+		int hash = spread(key.hashCode());
+		Node<K, V>[] tab = table;
+
+		while (true) {
+			int index = (tab.length - 1) & hash;
+			Node<K, V> first = binAt(tab, index);
+
+			if (first == null) {
+				if (casBinAt(tab, index, null, new Node<K, V>(hash, key, value, null))) {
+					addCount(tab);
+					return null;
+				}
+			} else if (first.hash == MOVED) {
+				tab = helpTransfer(tab, (ForwardingNode<K, V>) first);
+			} else if (onlyIfAbsent && first.hash == hash && (first.key == key || key.equals(first.key))) {
+				return first.value;
+			} else {
+				boolean done = false;
+				boolean added = false;
+				V oldValue = null;
+				synchronized (first) {
+					if (binAt(tab, index) == first) {
+						checkNotReserved(first);
+						Node<K, V> node = first;
+						while (true) {
+							if (node.hash == hash && (node.key == key || key.equals(node.key))) {
+								oldValue = node.value;
+								if (!onlyIfAbsent) {
+									node.value = value;
+								}
+								break;
+							}
+							if (node.next == null) {
+								node.next = new Node<K, V>(hash, key, value, null);
+								added = true;
+								break;
+							}
+							node = node.next;
+						}
+						done = true;
+					}
+				}
+				if (done) {
+					if (added) {
+						addCount(tab);
+					}
+					return oldValue;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the value of a key in a bin.
+	 * @param first The first node of the bin.
+	 * @param hash The spread hash of the key.
+	 * @param key The key to look for.
+	 * @return The value associated to the key, or null if the bin doesn't contain the key.
+	 */
+	private V find(Node<K, V> first, int hash, K key) {
+		for (Node<K, V> node = first; node != null; node = node.next) {
+			if (node.hash == hash && (node.key == key || key.equals(node.key))) {
+				return node.value;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Counts a new entry and starts a resize if the table is too full.
+	 * @param tab The table in which the entry has been put.
+	 */
+	private void addCount(Node<K, V>[] tab) {
+		entriesCount.increment();
+		if (entriesCount.sum() >= resizeThreshold && tab.length < MAX_TABLE_LENGTH) {
+			startResize(tab);
+		}
+	}
+
+	/**
+	 * Starts moving the entries to a table of double the length and helps to move them.
+	 * If another thread has already started the resize this thread only helps.
+	 * @param tab The table that is too full.
+	 */
+	private void startResize(Node<K, V>[] tab) {
+
+		Transfer<K, V> currentTransfer;
+
+		synchronized (resizeLock) {
+			currentTransfer = transfer;
+			if (currentTransfer == null) {
+				if (table != tab || entriesCount.sum() < resizeThreshold) {
+					return;
+				}
+				currentTransfer = new Transfer<K, V>(tab, newTable(tab.length * 2));
+				transfer = currentTransfer;
+			}
+		}
+		moveBins(currentTransfer);
+	}
+
+	/**
+	 * Helps the resize that is moving the bins of the indicated table.
+	 * @param tab The table with a moved bin.
+	 * @param forwardingNode The node that replaces the moved bin.
+	 * @return The table the bins are being moved to.
+	 */
+	private Node<K, V>[] helpTransfer(Node<K, V>[] tab, ForwardingNode<K, V> forwardingNode) {
+		Transfer<K, V> currentTransfer = transfer;
+		if (currentTransfer != null && currentTransfer.oldTable == tab) {
+			moveBins(currentTransfer);
+		}
+		return forwardingNode.nextTable;
+	}
+
+	/**
+	 * Claims ranges of bins of the resize and moves them until there are none left.
+	 * The thread that moves the last range publishes the new table.
+	 * @param currentTransfer The resize in progress.
+	 */
+	private void moveBins(Transfer<K, V> currentTransfer) {
+
+		while (true) {
+			int upper = currentTransfer.transferIndex.get();
+			if (upper <= 0) {
+				return;
+			}
+			int lower = Math.max(0, upper - currentTransfer.stride);
+			if (currentTransfer.transferIndex.compareAndSet(upper, lower)) {
+				for (int index = upper - 1; index >= lower; index--) {
+					moveBin(currentTransfer, index);
+				}
+				if (currentTransfer.pendingBins.addAndGet(lower - upper) == 0) {
+					Node<K, V>[] newTable = currentTransfer.newTable;
+					resizeThreshold = thresholdFor(newTable.length);
+					table = newTable;
+					transfer = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves a bin of the old table to the new one. The nodes are copied, so the readers
+	 * that are going over the old bin aren't affected. The bin at index i goes to the
+	 * bins i and i + n of the new table, where n is the length of the old one.
+	 * @param currentTransfer The resize in progress.
+	 * @param index The index of the bin to move.
+	 */
+	private void moveBin(Transfer<K, V> currentTransfer, int index) {
+
+		Node<K, V>[] oldTable = currentTransfer.oldTable;
+		Node<K, V>[] newTable = currentTransfer.newTable;
+		int oldLength = oldTable.length;
+
+		while (true) {
+			Node<K, V> first = binAt(oldTable, index);
+			if (first == null) {
+				if (casBinAt(oldTable, index, null, currentTransfer.forwardingNode)) {
+					return;
+				}
+			} else {
+				synchronized (first) {
+					if (binAt(oldTable, index) == first) {
+						Node<K, V> lowBin = null;
+						Node<K, V> highBin = null;
+						for (Node<K, V> node = first; node != null; node = node.next) {
+							if ((node.hash & oldLength) == 0) {
+								lowBin = new Node<K, V>(node.hash, node.key, node.value, lowBin);
+							} else {
+								highBin = new Node<K, V>(node.hash, node.key, node.value, highBin);
+							}
+						}
+						setBinAt(newTable, index, lowBin);
+						setBinAt(newTable, index + oldLength, highBin);
+						setBinAt(oldTable, index, currentTransfer.forwardingNode);
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks that a locked bin isn't reserved by a computeIfAbsent of the same thread.
+	 * @param first The first node of the locked bin.
+	 * @throws IllegalStateException If the bin is reserved.
+	 */
+	private static void checkNotReserved(Node<?, ?> first) throws IllegalStateException {
+		if (first.hash == RESERVED) {
+			throw new IllegalStateException("Recursive update");
+		}
+	}
+
+	/**
+	 * Spreads the higher bits of the hash code to the lower ones, which are the ones
+	 * used to index the table, and makes it non negative.
+	 * @param hashCode The hash code of the key.
+	 * @return The spread hash.
+	 */
+	private static int spread(int hashCode) {
+		return (hashCode ^ (hashCode >>> 16)) & HASH_BITS;
+	}
+
+	/**
+	 * Gets the number of entries that a table can hold before growing.
+	 * @param tableLength The length of the table.
+	 * @return Three quarters of the length of the table.
+	 */
+	private static int thresholdFor(int tableLength) {
+		return tableLength - (tableLength >>> 2);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Node<K, V>[] newTable(int length) {
+		return (Node<K, V>[]) new Node<?, ?>[length];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K, V> Node<K, V> binAt(Node<K, V>[] tab, int index) {
+		return (Node<K, V>) BIN.getAcquire(tab, index);
+	}
+
+	private static <K, V> boolean casBinAt(Node<K, V>[] tab, int index, Node<K, V> expected, Node<K, V> node) {
+		return BIN.compareAndSet(tab, index, expected, node);
+	}
+
+	private static <K, V> void setBinAt(Node<K, V>[] tab, int index, Node<K, V> node) {
+		BIN.setRelease(tab, index, node);
+	}
+
+	/**
+	 * A node of a bin. It is also the entry of the map.
+	 */
+	private static class Node<K, V> implements Entry<K, V> {
+
+		private final int hash;
+		private final K key;
+		private volatile V value;
+		private volatile Node<K, V> next;
+
+		/**
+		 * Creates a node.
+		 * @param hash The spread hash of the key, or the hash of a special node.
+		 * @param key The key of the entry.
+		 * @param value The value of the entry.
+		 * @param next The next node of the bin.
+		 */
+		private Node(int hash, K key, V value, Node<K, V> next) {
+			this.hash = hash;
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+
+		@Override
+		public K key() {
+			return key;
+		}
+
+		@Override
+		public V value() {
+			return value;
+		}
+	}
+
+	/**
+	 * The node that replaces a bin that has been moved to the new table.
+	 */
+	private static final class ForwardingNode<K, V> extends Node<K, V> {
+
+		private final Node<K, V>[] nextTable;
+
+		private ForwardingNode(Node<K, V>[] nextTable) {
+			super(MOVED, null, null, null);
+			this.nextTable = nextTable;
+		}
+	}
+
+	/**
+	 * The state of a resize shared by all the threads that take part in it.
+	 */
+	private static final class Transfer<K, V> {
+
+		private final Node<K, V>[] oldTable;
+		private final Node<K, V>[] newTable;
+		private final ForwardingNode<K, V> forwardingNode;
+		private final int stride;
+
+		// The bins below the transfer index haven't been claimed by any thread yet.
+		private final AtomicInteger transferIndex;
+		private final AtomicInteger pendingBins;
+
+		private Transfer(Node<K, V>[] oldTable, Node<K, V>[] newTable) {
+			this.oldTable = oldTable;
+			this.newTable = newTable;
+			this.forwardingNode = new ForwardingNode<K, V>(newTable);
+			this.stride = Math.max((oldTable.length >>> 3) / CPU_COUNT, MIN_TRANSFER_STRIDE);
+			this.transferIndex = new AtomicInteger(oldTable.length);
+			this.pendingBins = new AtomicInteger(oldTable.length);
+		}
+	}
+
+	/**
+	 * A bin of a table that the iterator still has to go over.
+	 */
+	private static final class PendingBin<K, V> {
+
+		private final Node<K, V>[] table;
+		private final int index;
+
+		private PendingBin(Node<K, V>[] table, int index) {
+			this.table = table;
+			this.index = index;
+		}
+	}
+
+	/**
+	 * The weakly consistent iterator of the entries. When it finds a moved bin it goes
+	 * over the two bins of the next table that received its nodes.
+	 */
+	private static final class EntriesIterator<K, V> implements Iterator<Entry<K, V>> {
+
+		private final Node<K, V>[] baseTable;
+		private int baseIndex = 0;
+		private final ArrayStack<PendingBin<K, V>> pendingBins = new ArrayStack<PendingBin<K, V>>();
+		private Node<K, V> next = null;
+
+		private EntriesIterator(Node<K, V>[] baseTable) {
+			this.baseTable = baseTable;
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Entry<K, V> next() throws NoSuchElementException {
+			if (next == null) {
+				throw new NoSuchElementException("No next element");
+			}
+			Node<K, V> current = next;
+			advance();
+			return current;
+		}
+
+		/**
+		 * Finds the next node to return.
+		 */
+		private void advance() {
+
+			Node<K, V> node = (next == null) ? null : next.next;
+
+			while (node == null) {
+				Node<K, V>[] tab;
+				int index;
+				if (pendingBins.size() > 0) {
+					PendingBin<K, V> bin = pendingBins.pop();
+					tab = bin.table;
+					index = bin.index;
+				} else if (baseIndex < baseTable.length) {
+					tab = baseTable;
+					index = baseIndex;
+					baseIndex++;
+				} else {
+					next = null;
+					return;
+				}
+
+				node = binAt(tab, index);
+				if (node != null && node.hash == MOVED) {
+					Node<K, V>[] nextTable = ((ForwardingNode<K, V>) node).nextTable;
+					pendingBins.push(new PendingBin<K, V>(nextTable, index + tab.length));
+					pendingBins.push(new PendingBin<K, V>(nextTable, index));
+					node = null;
+				} else if (node != null && node.hash == RESERVED) {
+					node = null;
+				}
+			}
+			next = node;
+		}
+	}
+}
@@ -0,0 +1,578 @@
+package mnds.map;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import mnds.list.ArrayList;
+import mnds.list.LinkedList;
+import mnds.list.List;
+
+/**
+ * The thread safe skip list implementation of the sorted map ADT.
+ * <p>
+ * The operations don't lock. Every node has a tower of links, one per level, and
+ * each link can be marked. A node is removed by marking its links from the top
+ * level down, and the marked nodes are unlinked by the threads that find them
+ * while searching. The entry is removed when the link of the lowest level is
+ * marked. A new node is in the map once it is linked at the lowest level, and it
+ * is linked at the upper levels afterwards. The searches start at the highest level
+ * used by any node, which only grows, so a small map doesn't walk the empty upper
+ * levels of the head.
+ * <p>
+ * The keys and the values can't be null. The first and last entries, the cursors
+ * and the lists of entries are weakly consistent: they reflect the state of the map
+ * at some point at or since the operation started, and they can be used while
+ * other threads modify the map.
+ * @author Mehdi Nasef.
+ *
+ * @param <K> The type of the keys of the map.
+ * @param <V> The type of the values of the map.
+ */
+public class ConcurrentSkipListMap<K extends Comparable<K>, V> implements SortedMap<K, V> {
+
+	private final Node<K, V> head = new Node<K, V>(null, null, MAX_LEVEL);
+	private final Node<K, V> tail = new Node<K, V>(null, null, MAX_LEVEL);
+	private final LongAdder entriesCount = new LongAdder();
+	// The number of levels that have been used, raised before a taller node is searched for.
+	private final AtomicInteger levelsCount = new AtomicInteger(1);
+
+	private static final int MAX_LEVEL = 32;
+
+	/**
+	 * Creates an empty ConcurrentSkipListMap.
+	 */
+	public ConcurrentSkipListMap() {
+		for (int level = 0; level < MAX_LEVEL; level++) {
+			head.next[level].set(tail, false);
+		}
+	}
+
+	@Override
+	public void put(K key, V value) {
+
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+
+		Node<K, V>[] predecessors = newNodeArray();
+		Node<K, V>[] successors = newNodeArray();
+		// The levels of the new node must be in use before the search, so that it
+		// gets the predecessors of the node at all of them.
+		int topLevel = randomLevel();
+		raiseLevelsCount(topLevel);
+
+		while (true) {
+			if (find(key, predecessors, successors)) {
+				Node<K, V> node = successors[0];
+				node.value = value;
+				// If the node has been removed meanwhile the value is lost, so it is put again.
+				if (!node.next[0].isMarked()) {
+					return;
+				}
+				continue;
+			}
+
+			Node<K, V> newNode = new Node<K, V>(key, value, topLevel);
+			for (int level = 0; level < topLevel; level++) {
+				newNode.next[level].set(successors[level], false);
+			}
+
+			if (!predecessors[0].next[0].compareAndSet(successors[0], newNode, false, false)) {
+				continue;
+			}
+			entriesCount.increment();
+
+			linkUpperLevels(newNode, predecessors, successors);
+			return;
+		}
+	}
+
+	/**
+	 * Raises the number of levels in use to the indicated one, if it is less.
+	 * @param levels The number of levels that must be in use.
+	 */
+	private void raiseLevelsCount(int levels) {
+		int current = levelsCount.get();
+		while (current < levels && !levelsCount.compareAndSet(current, levels)) {
+			current = levelsCount.get();
+		}
+	}
+
+	/**
+	 * Links a node that is already in the lowest level to the upper levels of its tower.
+	 * It stops if the node is removed meanwhile.
+	 * @param node The new node.
+	 * @param predecessors The predecessors of the node at every level.
+	 * @param successors The successors of the node at every level.
+	 */
+	private void linkUpperLevels(Node<K, V> node, Node<K, V>[] predecessors, Node<K, V>[] successors) {
+
+		boolean[] marked = new boolean[1];
+
+		for (int level = 1; level < node.topLevel; level++) {
+			while (true) {
+				Node<K, V> successor = successors[level];
+				Node<K, V> linkedSuccessor = node.next[level].get(marked);
+				if (marked[0]) {
+					return;
+				}
+				if (linkedSuccessor != successor
+						&& !node.next[level].compareAndSet(linkedSuccessor, successor, false, false)) {
+					continue;
+				}
+				if (predecessors[level].next[level].compareAndSet(successor, node, false, false)) {
+					break;
+				}
+				find(node.key, predecessors, successors);
+				if (successors[0] != node) {
+					return;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void remove(K key) {
+
+		Node<K, V>[] predecessors = newNodeArray();
+		Node<K, V>[] successors = newNodeArray();
+		boolean[] marked = new boolean[1];
+
+		if (!find(key, predecessors, successors)) {
+			return;
+		}
+
+		Node<K, V> node = successors[0];
+		for (int level = node.topLevel - 1; level >= 1; level--) {
+			Node<K, V> successor = node.next[level].get(marked);
+			while (!marked[0]) {
+				node.next[level].compareAndSet(successor, successor, false, true);
+				successor = node.next[level].get(marked);
+			}
+		}
+
+		Node<K, V> successor = node.next[0].get(marked);
+		while (!marked[0]) {
+			if (node.next[0].compareAndSet(successor, successor, false, true)) {
+				entriesCount.decrement();
+				// The search unlinks the marked node.
+				find(key, predecessors, successors);
+				return;
+			}
+			successor = node.next[0].get(marked);
+		}
+	}
+
+	@Override
+	public V get(K key) {
+
+		boolean[] marked = new boolean[1];
+		Node<K, V> predecessor = head;
+		Node<K, V> current = null;
+
+		for (int level = levelsCount.get() - 1; level >= 0; level--) {
+			current = predecessor.next[level].getReference();
+			while (true) {
+				Node<K, V> successor = current.next[level].get(marked);
+				while (marked[0]) {
+					current = successor;
+					successor = current.next[level].get(marked);
+				}
+				if (current != tail && current.key.compareTo(key) < 0) {
+					predecessor = current;
+					current = successor;
+				} else {
+					break;
+				}
+			}
+		}
+
+		if (current != tail && current.key.compareTo(key) == 0) {
+			return current.value;
+		}
+		return null;
+	}
+
+	@Override
+	public void clear() {
+		Node<K, V> first;
+		while ((first = firstNode()) != null) {
+			remove(first.key);
+		}
+	}
+
+	/**
+	 * Gets the number of entries of the map. The count is exact only when
+	 * no other thread is modifying the map.
+	 * @return The number of entries of the map.
+	 */
+	@Override
+	public int size() {
+		long count = entriesCount.sum();
+		if (count < 0) {
+			return 0;
+		}
+		return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+	}
+
+	@Override
+	public List<K> keys() {
+		List<K> keysList = new ArrayList<K>();
+		Cursor<K, V> cursor = ascendingCursor(null, true, Integer.MAX_VALUE);
+		while (cursor.next()) {
+			keysList.add(keysList.size(), cursor.key());
+		}
+		return keysList;
+	}
+
+	@Override
+	public List<V> values() {
+		List<V> valuesList = new ArrayList<V>();
+		Cursor<K, V> cursor = ascendingCursor(null, true, Integer.MAX_VALUE);
+		while (cursor.next()) {
+			valuesList.add(valuesList.size(), cursor.value());
+		}
+		return valuesList;
+	}
+
+	@Override
+	public List<Entry<K, V>> entries() {
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>();
+		SkipListCursor cursor = new SkipListCursor(null, true, Integer.MAX_VALUE, false);
+		while (cursor.next()) {
+			entriesList.add(entriesList.size(), cursor.current);
+		}
+		return entriesList;
+	}
+
+	@Override
+	public Entry<K, V> firstEntry() {
+		return firstNode();
+	}
+
+	@Override
+	public Entry<K, V> lastEntry() {
+
+		boolean[] marked = new boolean[1];
+		Node<K, V> last = head;
+
+		for (int level = levelsCount.get() - 1; level >= 0; level--) {
+			Node<K, V> current = last.next[level].getReference();
+			while (current != tail) {
+				Node<K, V> successor = current.next[level].get(marked);
+				if (!marked[0]) {
+					last = current;
+				}
+				current = successor;
+			}
+		}
+		return (last == head) ? null : last;
+	}
+
+	@Override
+	public List<Entry<K, V>> entriesInInterval(K least, K greatest) {
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>();
+		SkipListCursor cursor = new SkipListCursor(least, true, Integer.MAX_VALUE, false);
+		while (cursor.next() && greatest.compareTo(cursor.current.key) >= 0) {
+			entriesList.add(entriesList.size(), cursor.current);
+		}
+		return entriesList;
+	}
+
+	@Override
+	public List<Entry<K, V>> ascendentsUpTo(K key) {
+		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>();
+		SkipListCursor cursor = new SkipListCursor(null, true, Integer.MAX_VALUE, false);
+		while (cursor.next() && key.compareTo(cursor.current.key) >= 0) {
+			entriesList.add(entriesList.size(), cursor.current);
+		}
+		return entriesList;
+	}
+
+	@Override
+	public List<Entry<K, V>> descendentsDownTo(K key) {
+		// The entries are read in ascending order and put at the front of the list.
+		List<Entry<K, V>> entriesList = new LinkedList<Entry<K, V>>();
+		SkipListCursor cursor = new SkipListCursor(key, true, Integer.MAX_VALUE, false);
+		while (cursor.next()) {
+			entriesList.add(0, cursor.current);
+		}
+		return entriesList;
+	}
+
+	/**
+	 * Gets a cursor over the entries in ascending order of key. Each step follows
+	 * one link of the lowest level.
+	 */
+	@Override
+	public Cursor<K, V> ascendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException {
+		return new SkipListCursor(from, inclusive, limit, false);
+	}
+
+	/**
+	 * Gets a cursor over the entries in descending order of key. The nodes aren't
+	 * linked backwards, so each step searches the predecessor of the current key
+	 * in O(log n) time.
+	 */
+	@Override
+	public Cursor<K, V> descendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException {
+		return new SkipListCursor(from, inclusive, limit, true);
+	}
+
+	/**
+	 * Searches the key, unlinking the marked nodes found on the way.
+	 * @param key The key to look for.
+	 * @param predecessors Gets the last node with a key less than the indicated at every
+	 * level in use.
+	 * @param successors Gets the node after the predecessor at every level in use.
+	 * @return true if the lowest level contains a node with the key.
+	 */
+	private boolean find(K key, Node<K, V>[] predecessors, Node<K, V>[] successors) {
+
+		boolean[] marked = new boolean[1];
+
+		retry:
+		while (true) {
+			Node<K, V> predecessor = head;
+			Node<K, V> current = null;
+
+			for (int level = levelsCount.get() - 1; level >= 0; level--) {
+				current = predecessor.next[level].getReference();
+				while (true) {
+					Node<K, V> successor = current.next[level].get(marked);
+					while (marked[0]) {
+						if (!predecessor.next[level].compareAndSet(current, successor, false, false)) {
+							continue retry;
+						}
+						current = successor;
+						successor = current.next[level].get(marked);
+					}
+					if (current != tail && current.key.compareTo(key) < 0) {
+						predecessor = current;
+						current = successor;
+					} else {
+						break;
+					}
+				}
+				predecessors[level] = predecessor;
+				successors[level] = current;
+			}
+			return current != tail && current.key.compareTo(key) == 0;
+		}
+	}
+
+	/**
+	 * Gets the first node of the lowest level that isn't removed.
+	 * @return The node with the least key, or null if the map is empty.
+	 */
+	private Node<K, V> firstNode() {
+		boolean[] marked = new boolean[1];
+		Node<K, V> current = head.next[0].getReference();
+		while (current != tail) {
+			Node<K, V> successor = current.next[0].get(marked);
+			if (!marked[0]) {
+				return current;
+			}
+			current = successor;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the node with the least key greater than the indicated one, or equal to it.
+	 * @param key The delimiter key, or null to get the first node.
+	 * @param inclusive true to accept a node with the same key.
+	 * @return The node found, or null if there is no such node.
+	 */
+	private Node<K, V> ceilingNode(K key, boolean inclusive) {
+
+		if (key == null) {
+			return firstNode();
+		}
+
+		boolean[] marked = new boolean[1];
+		Node<K, V> predecessor = head;
+		Node<K, V> current = null;
+
+		for (int level = levelsCount.get() - 1; level >= 0; level--) {
+			current = predecessor.next[level].getReference();
+			while (true) {
+				Node<K, V> successor = current.next[level].get(marked);
+				while (marked[0]) {
+					current = successor;
+					successor = current.next[level].get(marked);
+				}
+				if (current == tail) {
+					break;
+				}
+				int comparasionResult = current.key.compareTo(key);
+				if (comparasionResult < 0 || (comparasionResult == 0 && !inclusive)) {
+					predecessor = current;
+					current = successor;
+				} else {
+					break;
+				}
+			}
+		}
+		return (current == tail) ? null : current;
+	}
+
+	/**
+	 * Gets the node with the greatest key less than the indicated one, or equal to it.
+	 * @param key The delimiter key, or null to get the last node.
+	 * @param inclusive true to accept a node with the same key.
+	 * @return The node found, or null if there is no such node.
+	 */
+	private Node<K, V> floorNode(K key, boolean inclusive) {
+
+		if (key == null) {
+			return (Node<K, V>) lastEntry();
+		}
+
+		boolean[] marked = new boolean[1];
+		Node<K, V> predecessor = head;
+
+		for (int level = levelsCount.get() - 1; level >= 0; level--) {
+			Node<K, V> current = predecessor.next[level].getReference();
+			while (current != tail) {
+				Node<K, V> successor = current.next[level].get(marked);
+				if (!marked[0]) {
+					int comparasionResult = current.key.compareTo(key);
+					if (comparasionResult > 0 || (comparasionResult == 0 && !inclusive)) {
+						break;
+					}
+					predecessor = current;
+				}
+				current = successor;
+			}
+		}
+		return (predecessor == head) ? null : predecessor;
+	}
+
+	/**
+	 * Gets a random level for a new node. Each level is half as likely as the one below.
+	 * @return A level between 1 and the maximum level.
+	 */
+	private static int randomLevel() {
+		int random = ThreadLocalRandom.current().nextInt();
+		return Math.min(Integer.numberOfTrailingZeros(random) + 1, MAX_LEVEL);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K extends Comparable<K>, V> Node<K, V>[] newNodeArray() {
+		return (Node<K, V>[]) new Node<?, ?>[MAX_LEVEL];
+	}
+
+	/**
+	 * The cursor of the ConcurrentSkipListMap. It only holds the current node.
+	 */
+	private class SkipListCursor implements Cursor<K, V> {
+
+		private Node<K, V> current = null;
+		private Node<K, V> pending;
+		private int remaining;
+		private final boolean descending;
+
+		/**
+		 * Creates a cursor positioned before the first entry of the range.
+		 * @param from The key where the cursor starts, or null to start at the end of the list.
+		 * @param inclusive true to include the entry with the key from.
+		 * @param limit The maximum number of entries to go over.
+		 * @param descending true to go over the entries in descending order.
+		 * @throws IllegalArgumentException If the limit is negative.
+		 */
+		private SkipListCursor(K from, boolean inclusive, int limit, boolean descending)
+				throws IllegalArgumentException {
+			if (limit < 0) {
+				throw new IllegalArgumentException("Negative limit");
+			}
+			this.remaining = limit;
+			this.descending = descending;
+			this.pending = descending ? floorNode(from, inclusive) : ceilingNode(from, inclusive);
+		}
+
+		@Override
+		public boolean next() {
+
+			if (remaining == 0 || pending == null) {
+				current = null;
+				return false;
+			}
+			current = pending;
+			remaining--;
+
+			if (descending) {
+				pending = floorNode(current.key, false);
+			} else {
+				boolean[] marked = new boolean[1];
+				Node<K, V> node = current.next[0].getReference();
+				while (node != tail) {
+					Node<K, V> successor = node.next[0].get(marked);
+					if (!marked[0]) {
+						break;
+					}
+					node = successor;
+				}
+				pending = (node == tail) ? null : node;
+			}
+			return true;
+		}
+
+		@Override
+		public K key() throws NoSuchElementException {
+			if (current == null) {
+				throw new NoSuchElementException("The cursor isn't on an entry");
+			}
+			return current.key;
+		}
+
+		@Override
+		public V value() throws NoSuchElementException {
+			if (current == null) {
+				throw new NoSuchElementException("The cursor isn't on an entry");
+			}
+			return current.value;
+		}
+	}
+
+	/**
+	 * A node of the skip list. It is also the entry of the map.
+	 */
+	private static final class Node<K extends Comparable<K>, V> implements Entry<K, V> {
+
+		private final K key;
+		private volatile V value;
+		private final AtomicMarkableReference<Node<K, V>>[] next;
+		private final int topLevel;
+
+		/**
+		 * Creates a node with a tower of the indicated height.
+		 * @param key The key of the entry.
+		 * @param value The value of the entry.
+		 * @param topLevel The number of levels of the node.
+		 */
+		@SuppressWarnings("unchecked")
+		private Node(K key, V value, int topLevel) {
+			this.key = key;
+			this.value = value;
+			this.topLevel = topLevel;
+			this.next = (AtomicMarkableReference<Node<K, V>>[]) new AtomicMarkableReference<?>[topLevel];
+			for (int level = 0; level < topLevel; level++) {
+				next[level] = new AtomicMarkableReference<Node<K, V>>(null, false);
+			}
+		}
+
+		@Override
+		public K key() {
+			return key;
+		}
+
+		@Override
+		public V value() {
+			return value;
+		}
+	}
+}
@@ -1,109 +1,201 @@
 package mnds.map;
 
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 import mnds.list.ArrayList;
-import mnds.list.LinkedList;
 import mnds.list.List;
 
 /**
  * The hash table implementation of the map ADT.
+ * The table uses open addressing with linear probing. The keys and the values
+ * are kept in two parallel arrays, so looking up a key doesn't allocate any object.
+ * The keys can't be null.
+ * <p>
+ * In incremental resize mode the old table isn't rehashed all at once when the
+ * map grows. Both tables coexist and every put, get and remove moves a bounded
+ * number of slots of the old table to the new one, so no single operation pays
+ * for rehashing the whole map.
  * @author Mehdi Nasef.
  *
  * @param <K> The type of the keys of the map.
  * @param <V> The type of the values of the map.
  */
 public class HashMap<K, V> implements Map<K, V> {
-	
-	private List<HashMapEntry>[] table;
+
+	private K[] keys;
+	private V[] values;
+	private int mask;
 	private int entriesCount;
-	
-	private static final int DEFAULT_INITIAL_CAPACITY = 128;
-	
+	private int resizeThreshold;
+
+	private final double loadFactor;
+	private final boolean incrementalResize;
+
+	// The table being migrated to the current one, null if no resize is in progress.
+	private K[] oldKeys = null;
+	private V[] oldValues = null;
+	private int oldMask;
+	private int oldEntriesCount = 0;
+	private int migrationIndex;
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 16;
+	private static final double DEFAULT_LOAD_FACTOR = 0.75;
+	private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+	// The number of slots of the old table that are migrated in each operation.
+	private static final int MIGRATION_STEP = 16;
+
+	/**
+	 * Creates a HashMap with the indicated initial capacity, load factor and resize mode.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @param loadFactor The fraction of the table that can be occupied before it grows.
+	 * @param incrementalResize true to migrate the entries to the grown table a few
+	 * at a time, false to rehash all of them when the table grows.
+	 * @throws IllegalArgumentException If the initial capacity is negative or the
+	 * load factor isn't greater than 0 and less than 1.
+	 */
+	public HashMap(int initialCapacity, double loadFactor, boolean incrementalResize)
+			throws IllegalArgumentException {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Negative initial capacity");
+		}
+		if (!(loadFactor > 0.0 && loadFactor < 1.0)) {
+			throw new IllegalArgumentException("The load factor must be in the interval (0, 1)");
+		}
+		this.loadFactor = loadFactor;
+		this.incrementalResize = incrementalResize;
+		initialize(tableLengthFor(initialCapacity));
+	}
+
+	/**
+	 * Creates a HashMap with the indicated initial capacity and load factor.
+	 * The table is rehashed all at once when it grows.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @param loadFactor The fraction of the table that can be occupied before it grows.
+	 * @throws IllegalArgumentException If the initial capacity is negative or the
+	 * load factor isn't greater than 0 and less than 1.
+	 */
+	public HashMap(int initialCapacity, double loadFactor) throws IllegalArgumentException {
+		this(initialCapacity, loadFactor, false);
+	}
+
 	/**
 	 * Creates a HashMap with the indicated initial capacity.
-	 * @param initialCapacity the initial capacity of the hashMap.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @throws IllegalArgumentException If the initial capacity is negative.
 	 */
-	public HashMap(int initialCapacity) {
-		initialize(initialCapacity);
+	public HashMap(int initialCapacity) throws IllegalArgumentException {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, false);
 	}
-	
+
 	/**
 	 *  Creates a Hash map with the default initial capacity.
 	 */
 	public HashMap() {
-		initialize(DEFAULT_INITIAL_CAPACITY);
+		this(DEFAULT_INITIAL_CAPACITY);
 	}
-	
+
 	/**
-	 * Does the common initialization of the constructors.
-	 * It also can be used for resizing. 
-	 * @param initialCapacity The initial capacity of the map.
+	 * Allocates an empty table with the indicated length.
+	 * It is used by the constructors and for resizing.
+	 * @param tableLength The length of the table. It must be a power of two.
 	 */
 	@SuppressWarnings("unchecked")
-	private void initialize(int initialCapacity) {
-		
-		entriesCount = 0;
-		table = new List[initialCapacity];
-		
-		for (int i = 0; i < table.length; i++) {
-			table[i] = new LinkedList<HashMapEntry>();
-		}
+	private void initialize(int tableLength) {
+
+		keys = (K[]) new Object[tableLength];
+		values = (V[]) new Object[tableLength];
+		mask = tableLength - 1;
+		resizeThreshold = (int) (tableLength * loadFactor);
 	}
 
 	@Override
 	public void put(K key, V value) {
-		
-		double ocupationLevel = (double) entriesCount / (double) table.length;
-		if (ocupationLevel >= 1.0) {
-			resize();
+
+		if (oldKeys != null) {
+			migrate(MIGRATION_STEP);
+		}
+
+		int slot = slotOf(keys, mask, key);
+
+		if (slot >= 0) {
+			values[slot] = value;
+			return;
+		}
+
+		if (oldKeys != null) {
+			int oldSlot = slotOf(oldKeys, oldMask, key);
+			if (oldSlot >= 0) {
+				oldValues[oldSlot] = value;
+				return;
+			}
 		}
-		
-		int index = hash(key);
-		
-		HashMapEntry entry = getFromList(table[index], key);
-		
-		if (entry == null) {
-			entry = new HashMapEntry(key, value);
-			table[index].add(0, entry);
-			entriesCount++;
-		} else {
-			entry.value = value;
+
+		if (entriesCount >= resizeThreshold) {
+			resize();
+			slot = slotOf(keys, mask, key);
 		}
+
+		// The slot is encoded as a negative number when the key isn't in the table.
+		slot = -(slot + 1);
+		keys[slot] = key;
+		values[slot] = value;
+		entriesCount++;
 	}
 
 	@Override
 	public void remove(K key) {
-		
-		int index = hash(key);
-		
-		boolean removed = removeFromList(table[index], key);
-		
-		if (removed) {
+
+		if (oldKeys != null) {
+			migrate(MIGRATION_STEP);
+		}
+
+		int slot = slotOf(keys, mask, key);
+
+		if (slot >= 0) {
+			removeAt(keys, values, mask, slot);
 			entriesCount--;
+		} else if (oldKeys != null) {
+			slot = slotOf(oldKeys, oldMask, key);
+			if (slot >= 0) {
+				removeAt(oldKeys, oldValues, oldMask, slot);
+				oldEntriesCount--;
+				entriesCount--;
+			}
 		}
 	}
 
 	@Override
 	public V get(K key) {
-		
-		int index = hash(key);
-		
-		HashMapEntry entry = getFromList(table[index], key);
-		
-		if (entry != null) {
-			return entry.value;
-		} else {
-			return null;
+
+		if (oldKeys != null) {
+			migrate(MIGRATION_STEP);
+		}
+
+		int slot = slotOf(keys, mask, key);
+
+		if (slot >= 0) {
+			return values[slot];
 		}
+		if (oldKeys != null) {
+			slot = slotOf(oldKeys, oldMask, key);
+			if (slot >= 0) {
+				return oldValues[slot];
+			}
+		}
+		return null;
 	}
 
 	@Override
 	public void clear() {
-		
-		for (List<HashMapEntry> list: table) {
-			list.clear();
-		}
+
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		oldKeys = null;
+		oldValues = null;
+		oldEntriesCount = 0;
 		entriesCount = 0;
 	}
 
@@ -114,108 +206,300 @@ public class HashMap<K, V> implements Map<K, V> {
 
 	@Override
 	public List<K> keys() {
-		
+
 		List<K> keysList = new ArrayList<K>(entriesCount);
-		
+
 		int i = 0;
-		for (List<HashMapEntry> entriesList: table) {
-			for (HashMapEntry e: entriesList) {
-				keysList.add(i, e.key);
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				keysList.add(i, keys[slot]);
 				i++;
 			}
 		}
-		
+		if (oldKeys != null) {
+			for (int slot = migrationIndex; slot < oldKeys.length; slot++) {
+				if (oldKeys[slot] != null) {
+					keysList.add(i, oldKeys[slot]);
+					i++;
+				}
+			}
+		}
+
 		return keysList;
 	}
 
 	@Override
 	public List<V> values() {
-		
+
 		List<V> valuesList = new ArrayList<V>(entriesCount);
-		
-		int i = 0; 
-		for (List<HashMapEntry> entriesList: table) {
-			for (HashMapEntry e: entriesList) {
-				valuesList.add(i, e.value);
+
+		int i = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				valuesList.add(i, values[slot]);
 				i++;
 			}
 		}
-		
+		if (oldKeys != null) {
+			for (int slot = migrationIndex; slot < oldKeys.length; slot++) {
+				if (oldKeys[slot] != null) {
+					valuesList.add(i, oldValues[slot]);
+					i++;
+				}
+			}
+		}
+
 		return valuesList;
 	}
 
 	@Override
 	public List<Entry<K, V>> entries() {
-		
+
 		List<Entry<K, V>> entriesList = new ArrayList<Entry<K, V>>(entriesCount);
-		
+
 		int i = 0;
-		for (List<HashMapEntry> entries: table) {
-			for (HashMapEntry e: entries) {
-				entriesList.add(i, e);
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				entriesList.add(i, new HashMapEntry(keys[slot], values[slot]));
 				i++;
 			}
 		}
-		
+		if (oldKeys != null) {
+			for (int slot = migrationIndex; slot < oldKeys.length; slot++) {
+				if (oldKeys[slot] != null) {
+					entriesList.add(i, new HashMapEntry(oldKeys[slot], oldValues[slot]));
+					i++;
+				}
+			}
+		}
+
 		return entriesList;
 	}
-	
+
+	/**
+	 * Gets a spliterator over snapshots of the entries of the map. A resize in progress is
+	 * finished first, so all the entries are in a single table that is split by ranges of
+	 * slots. Only the spliterator that hasn't been split knows its exact size.
+	 * The map must not be modified while the spliterator is used.
+	 * @return The spliterator of the entries of the map.
+	 */
+	public Spliterator<Entry<K, V>> entriesSpliterator() {
+		if (oldKeys != null) {
+			migrate(Integer.MAX_VALUE);
+		}
+		return new HashMapSpliterator(0, keys.length, entriesCount, true);
+	}
+
 	/**
 	 * Gets the hash value of the hey.
+	 * The hash code is mixed so that the low bits used to index a table
+	 * depend on all the bits of the hash code.
 	 * @param key The key whose hash value to be got.
+	 * @param mask The mask of the table, its length minus one.
 	 * @return The hash value of the key.
 	 */
-	private int hash(K key) {
-		return Math.abs(key.hashCode()) % table.length;
+	private int hash(K key, int mask) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
 	}
-	
+
 	/**
-	 * Gets the entry with the indicated key form the list.
-	 * @param list The list to get the entry form.
-	 * @param key The key of the entry to be got.
-	 * @return the entry with the indicated list or null if there is no such entry.
+	 * Gets the slot of a table that contains the indicated key.
+	 * @param table The keys of the table.
+	 * @param mask The mask of the table, its length minus one.
+	 * @param key The key to look for.
+	 * @return The slot of the key if it is in the table, or -(freeSlot + 1) where freeSlot
+	 * is the slot in which the key would be put.
 	 */
-	private HashMapEntry getFromList(List<HashMapEntry> list, K key) {
-		
-		for (HashMapEntry e: list) {
-			if (key.equals(e.key)) {
-				return e;
+	private int slotOf(K[] table, int mask, K key) {
+
+		int slot = hash(key, mask);
+		K slotKey;
+
+		while ((slotKey = table[slot]) != null) {
+			if (slotKey == key || slotKey.equals(key)) {
+				return slot;
 			}
+			slot = (slot + 1) & mask;
 		}
-		return null;
+		return -(slot + 1);
 	}
-	
+
 	/**
-	 * Removes the entry with the indicated key.
-	 * @param list The list to remove the entry form.
-	 * @param key The key of the entry to be removed.
-	 * @return true if an entry have been removed, false otherwise.
+	 * Removes the entry at the indicated slot of a table. The entries that come after it in the
+	 * same probe sequence are shifted back, so no deleted markers are left in the table.
+	 * @param tableKeys The keys of the table.
+	 * @param tableValues The values of the table.
+	 * @param mask The mask of the table, its length minus one.
+	 * @param slot The slot of the entry to be removed.
 	 */
-	private boolean removeFromList(List<HashMapEntry> list, K key) {
-		
-		Iterator<HashMapEntry> iter = list.iterator();
-		
-		while(iter.hasNext()) {
-			HashMapEntry entry = iter.next();
-			if (entry.key.equals(key)) {
-				iter.remove();
-				return true;
+	private void removeAt(K[] tableKeys, V[] tableValues, int mask, int slot) {
+
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		K nextKey;
+
+		while ((nextKey = tableKeys[next]) != null) {
+			// The entry can fill the gap only if its home slot isn't between the gap and itself.
+			int home = hash(nextKey, mask);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				tableKeys[gap] = nextKey;
+				tableValues[gap] = tableValues[next];
+				gap = next;
 			}
+			next = (next + 1) & mask;
 		}
-		return false;
+		tableKeys[gap] = null;
+		tableValues[gap] = null;
 	}
-	
+
+	/**
+	 * Replaces the table with one of double the length. The entries of the replaced
+	 * table are migrated right away unless the map resizes incrementally.
+	 */
 	private void resize() {
-		
-		List<HashMapEntry>[] oldTable = table;
-		
-		// The map is reinitialized with double the capacity.
-		this.initialize(oldTable.length * 2);
-		
-		for (List<HashMapEntry> entriesList: oldTable) {
-			for (HashMapEntry e: entriesList) {
-				this.put(e.key, e.value);
+
+		if (keys.length >= MAX_TABLE_LENGTH) {
+			throw new IllegalStateException("Maximum capacity reached");
+		}
+
+		// A previous resize must be finished before the table can be replaced again.
+		if (oldKeys != null) {
+			migrate(Integer.MAX_VALUE);
+		}
+
+		oldKeys = keys;
+		oldValues = values;
+		oldMask = mask;
+		oldEntriesCount = entriesCount;
+		migrationIndex = 0;
+
+		this.initialize(oldKeys.length * 2);
+
+		if (!incrementalResize) {
+			migrate(Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Moves entries from the old table to the current one. The old table is
+	 * dropped once it is empty.
+	 * Removing an entry from the old table can shift a later entry back into the
+	 * same slot, so the migration index only advances over empty slots.
+	 * @param steps The maximum number of slots of the old table to process.
+	 */
+	private void migrate(int steps) {
+
+		while (steps > 0 && oldEntriesCount > 0) {
+			K key = oldKeys[migrationIndex];
+			if (key == null) {
+				migrationIndex++;
+			} else {
+				int slot = -(slotOf(keys, mask, key) + 1);
+				keys[slot] = key;
+				values[slot] = oldValues[migrationIndex];
+				removeAt(oldKeys, oldValues, oldMask, migrationIndex);
+				oldEntriesCount--;
+			}
+			steps--;
+		}
+
+		if (oldEntriesCount == 0) {
+			oldKeys = null;
+			oldValues = null;
+		}
+	}
+
+	/**
+	 * Gets the length of the table needed to hold the indicated number of entries.
+	 * @param capacity The number of entries.
+	 * @return The least power of two that can hold the entries without exceeding the load factor.
+	 */
+	private int tableLengthFor(int capacity) {
+
+		int tableLength = 2;
+		while (tableLength < MAX_TABLE_LENGTH && tableLength * loadFactor <= capacity) {
+			tableLength *= 2;
+		}
+		return tableLength;
+	}
+
+	/**
+	 * A spliterator over a range of slots of the table.
+	 */
+	private class HashMapSpliterator implements Spliterator<Entry<K, V>> {
+
+		private int slot;
+		private final int fence;
+		private long estimatedSize;
+		private boolean exactSize;
+
+		/**
+		 * Creates a spliterator over the slots of the table from the first one, inclusive,
+		 * to the fence, exclusive.
+		 * @param slot The first slot.
+		 * @param fence The slot after the last one.
+		 * @param estimatedSize The estimated number of entries in the slots.
+		 * @param exactSize true if the estimated number of entries is exact.
+		 */
+		private HashMapSpliterator(int slot, int fence, long estimatedSize, boolean exactSize) {
+			this.slot = slot;
+			this.fence = fence;
+			this.estimatedSize = estimatedSize;
+			this.exactSize = exactSize;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			while (slot < fence) {
+				K key = keys[slot];
+				V value = values[slot];
+				slot++;
+				if (key != null) {
+					action.accept(new HashMapEntry(key, value));
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			K[] tableKeys = keys;
+			V[] tableValues = values;
+			for (int i = slot; i < fence; i++) {
+				if (tableKeys[i] != null) {
+					action.accept(new HashMapEntry(tableKeys[i], tableValues[i]));
+				}
+			}
+			slot = fence;
+		}
+
+		@Override
+		public Spliterator<Entry<K, V>> trySplit() {
+			int middle = (slot + fence) >>> 1;
+			if (middle <= slot) {
+				return null;
+			}
+			estimatedSize >>>= 1;
+			exactSize = false;
+			Spliterator<Entry<K, V>> prefix = new HashMapSpliterator(slot, middle, estimatedSize, false);
+			slot = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimatedSize;
+		}
+
+		@Override
+		public int characteristics() {
+			int characteristics = Spliterator.DISTINCT | Spliterator.NONNULL;
+			if (exactSize) {
+				characteristics |= Spliterator.SIZED;
 			}
+			return characteristics;
 		}
 	}
 
@@ -224,10 +508,10 @@ public class HashMap<K, V> implements Map<K, V> {
 	 *
 	 */
 	public class HashMapEntry implements Entry<K, V> {
-		
+
 		private K key;
 		private V value;
-		
+
 		/**
 		 * Creates an entry with the indicated key and value.
 		 * @param key The key of the entry.
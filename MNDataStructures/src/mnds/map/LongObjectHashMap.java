@@ -0,0 +1,295 @@
+package mnds.map;
+
+import java.util.Arrays;
+
+import mnds.list.ArrayList;
+import mnds.list.List;
+
+/**
+ * A hash map with long keys that doesn't box them.
+ * It uses open addressing with linear probing on a long array of keys and a
+ * parallel array of values. The key 0 marks the free slots of the table, so the
+ * entry with the key 0 is kept apart from the table.
+ * @author Mehdi Nasef.
+ *
+ * @param <V> The type of the values of the map.
+ */
+public class LongObjectHashMap<V> {
+
+	private long[] keys;
+	private V[] values;
+	private int mask;
+	private int entriesCount = 0;
+	private int resizeThreshold;
+	private final double loadFactor;
+
+	private boolean hasZeroKey = false;
+	private V zeroKeyValue = null;
+
+	private static final long FREE_KEY = 0L;
+	private static final int DEFAULT_INITIAL_CAPACITY = 16;
+	private static final double DEFAULT_LOAD_FACTOR = 0.75;
+	private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+	/**
+	 * Creates a LongObjectHashMap with the indicated initial capacity and load factor.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @param loadFactor The fraction of the table that can be occupied before it grows.
+	 * @throws IllegalArgumentException If the initial capacity is negative or the
+	 * load factor isn't greater than 0 and less than 1.
+	 */
+	public LongObjectHashMap(int initialCapacity, double loadFactor) throws IllegalArgumentException {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Negative initial capacity");
+		}
+		if (!(loadFactor > 0.0 && loadFactor < 1.0)) {
+			throw new IllegalArgumentException("The load factor must be in the interval (0, 1)");
+		}
+		this.loadFactor = loadFactor;
+
+		int tableLength = 2;
+		while (tableLength < MAX_TABLE_LENGTH && tableLength * loadFactor <= initialCapacity) {
+			tableLength *= 2;
+		}
+		initialize(tableLength);
+	}
+
+	/**
+	 * Creates a LongObjectHashMap with the indicated initial capacity.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @throws IllegalArgumentException If the initial capacity is negative.
+	 */
+	public LongObjectHashMap(int initialCapacity) throws IllegalArgumentException {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Creates a LongObjectHashMap with the default initial capacity.
+	 */
+	public LongObjectHashMap() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Allocates an empty table with the indicated length.
+	 * @param tableLength The length of the table. It must be a power of two.
+	 */
+	@SuppressWarnings("unchecked")
+	private void initialize(int tableLength) {
+		keys = new long[tableLength];
+		values = (V[]) new Object[tableLength];
+		mask = tableLength - 1;
+		resizeThreshold = (int) (tableLength * loadFactor);
+	}
+
+	/**
+	 * Associates the value to the key. If the key already has a value it is replaced.
+	 * @param key The key associated to the value.
+	 * @param value The value to be put in the map.
+	 */
+	public void put(long key, V value) {
+
+		if (key == FREE_KEY) {
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				entriesCount++;
+			}
+			zeroKeyValue = value;
+			return;
+		}
+
+		int slot = slotOf(key);
+		if (slot >= 0) {
+			values[slot] = value;
+			return;
+		}
+
+		if (entriesCount >= resizeThreshold) {
+			resize();
+			slot = slotOf(key);
+		}
+		slot = -(slot + 1);
+		keys[slot] = key;
+		values[slot] = value;
+		entriesCount++;
+	}
+
+	/**
+	 * Gets the value associated to the key.
+	 * @param key The key associated to the value to be got.
+	 * @return The value associated to the key or null if the map doesn't contain the key.
+	 */
+	public V get(long key) {
+
+		if (key == FREE_KEY) {
+			return zeroKeyValue;
+		}
+
+		int slot = slotOf(key);
+		if (slot >= 0) {
+			return values[slot];
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Checks whether the map contains an entry with the key.
+	 * @param key The key to look for.
+	 * @return true if the map contains the key, false otherwise.
+	 */
+	public boolean containsKey(long key) {
+		if (key == FREE_KEY) {
+			return hasZeroKey;
+		}
+		return slotOf(key) >= 0;
+	}
+
+	/**
+	 * Removes the entry with the indicated key.
+	 * @param key The key of the entry to be removed.
+	 */
+	public void remove(long key) {
+
+		if (key == FREE_KEY) {
+			if (hasZeroKey) {
+				hasZeroKey = false;
+				zeroKeyValue = null;
+				entriesCount--;
+			}
+			return;
+		}
+
+		int slot = slotOf(key);
+		if (slot < 0) {
+			return;
+		}
+
+		// Shift back the entries of the probe sequence to fill the gap.
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		long nextKey;
+		while ((nextKey = keys[next]) != FREE_KEY) {
+			int home = hash(nextKey);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = nextKey;
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = FREE_KEY;
+		values[gap] = null;
+		entriesCount--;
+	}
+
+	/**
+	 * Removes all the entries of the map.
+	 */
+	public void clear() {
+		Arrays.fill(keys, FREE_KEY);
+		Arrays.fill(values, null);
+		hasZeroKey = false;
+		zeroKeyValue = null;
+		entriesCount = 0;
+	}
+
+	/**
+	 * Gets the number of entries of the map.
+	 * @return The number of entries of the map.
+	 */
+	public int size() {
+		return entriesCount;
+	}
+
+	/**
+	 * Gets all the keys of the map.
+	 * @return An array with the keys of the map.
+	 */
+	public long[] keys() {
+
+		long[] keysArray = new long[entriesCount];
+		int i = 0;
+		if (hasZeroKey) {
+			keysArray[i++] = FREE_KEY;
+		}
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != FREE_KEY) {
+				keysArray[i++] = keys[slot];
+			}
+		}
+		return keysArray;
+	}
+
+	/**
+	 * Gets all the values of the map, in the same order as the keys.
+	 * @return A list with the values of the map.
+	 */
+	public List<V> values() {
+
+		List<V> valuesList = new ArrayList<V>(entriesCount);
+		int i = 0;
+		if (hasZeroKey) {
+			valuesList.add(i, zeroKeyValue);
+			i++;
+		}
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != FREE_KEY) {
+				valuesList.add(i, values[slot]);
+				i++;
+			}
+		}
+		return valuesList;
+	}
+
+	/**
+	 * Gets the home slot of the key.
+	 * @param key The key whose hash value to be got.
+	 * @return The hash value of the key.
+	 */
+	private int hash(long key) {
+		int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Gets the slot of the table that contains the indicated key.
+	 * @param key The key to look for. It can't be the free key.
+	 * @return The slot of the key if it is in the table, or -(freeSlot + 1) where freeSlot
+	 * is the slot in which the key would be put.
+	 */
+	private int slotOf(long key) {
+
+		int slot = hash(key);
+		long slotKey;
+		while ((slotKey = keys[slot]) != FREE_KEY) {
+			if (slotKey == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -(slot + 1);
+	}
+
+	/**
+	 * Doubles the length of the table and rehashes its entries.
+	 */
+	private void resize() {
+
+		if (keys.length >= MAX_TABLE_LENGTH) {
+			throw new IllegalStateException("Maximum capacity reached");
+		}
+
+		long[] oldKeys = keys;
+		V[] oldValues = values;
+		initialize(oldKeys.length * 2);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE_KEY) {
+				int slot = -(slotOf(oldKeys[i]) + 1);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
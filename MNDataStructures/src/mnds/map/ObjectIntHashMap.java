@@ -0,0 +1,283 @@
+package mnds.map;
+
+import java.util.Arrays;
+
+import mnds.list.ArrayList;
+import mnds.list.List;
+
+/**
+ * A hash map with int values that doesn't box them.
+ * It uses open addressing with linear probing on an array of keys and a
+ * parallel int array of values. The keys can't be null.
+ * @author Mehdi Nasef.
+ *
+ * @param <K> The type of the keys of the map.
+ */
+public class ObjectIntHashMap<K> {
+
+	private K[] keys;
+	private int[] values;
+	private int mask;
+	private int entriesCount = 0;
+	private int resizeThreshold;
+	private final double loadFactor;
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 16;
+	private static final double DEFAULT_LOAD_FACTOR = 0.75;
+	private static final int MAX_TABLE_LENGTH = 1 << 30;
+
+	/**
+	 * Creates an ObjectIntHashMap with the indicated initial capacity and load factor.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @param loadFactor The fraction of the table that can be occupied before it grows.
+	 * @throws IllegalArgumentException If the initial capacity is negative or the
+	 * load factor isn't greater than 0 and less than 1.
+	 */
+	public ObjectIntHashMap(int initialCapacity, double loadFactor) throws IllegalArgumentException {
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Negative initial capacity");
+		}
+		if (!(loadFactor > 0.0 && loadFactor < 1.0)) {
+			throw new IllegalArgumentException("The load factor must be in the interval (0, 1)");
+		}
+		this.loadFactor = loadFactor;
+
+		int tableLength = 2;
+		while (tableLength < MAX_TABLE_LENGTH && tableLength * loadFactor <= initialCapacity) {
+			tableLength *= 2;
+		}
+		initialize(tableLength);
+	}
+
+	/**
+	 * Creates an ObjectIntHashMap with the indicated initial capacity.
+	 * @param initialCapacity The number of entries the map can hold without resizing.
+	 * @throws IllegalArgumentException If the initial capacity is negative.
+	 */
+	public ObjectIntHashMap(int initialCapacity) throws IllegalArgumentException {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Creates an ObjectIntHashMap with the default initial capacity.
+	 */
+	public ObjectIntHashMap() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Allocates an empty table with the indicated length.
+	 * @param tableLength The length of the table. It must be a power of two.
+	 */
+	@SuppressWarnings("unchecked")
+	private void initialize(int tableLength) {
+		keys = (K[]) new Object[tableLength];
+		values = new int[tableLength];
+		mask = tableLength - 1;
+		resizeThreshold = (int) (tableLength * loadFactor);
+	}
+
+	/**
+	 * Associates the value to the key. If the key already has a value it is replaced.
+	 * @param key The key associated to the value.
+	 * @param value The value to be put in the map.
+	 */
+	public void put(K key, int value) {
+
+		int slot = slotOf(key);
+		if (slot >= 0) {
+			values[slot] = value;
+		} else {
+			insert(-(slot + 1), key, value);
+		}
+	}
+
+	/**
+	 * Adds the delta to the value associated to the key. If the key has no value
+	 * it is associated to the delta.
+	 * @param key The key whose value is incremented.
+	 * @param delta The amount to add to the value.
+	 * @return The new value associated to the key.
+	 */
+	public int addTo(K key, int delta) {
+
+		int slot = slotOf(key);
+		if (slot >= 0) {
+			values[slot] += delta;
+			return values[slot];
+		}
+		insert(-(slot + 1), key, delta);
+		return delta;
+	}
+
+	/**
+	 * Gets the value associated to the key.
+	 * @param key The key associated to the value to be got.
+	 * @return The value associated to the key or 0 if the map doesn't contain the key.
+	 */
+	public int get(K key) {
+
+		int slot = slotOf(key);
+		if (slot >= 0) {
+			return values[slot];
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Checks whether the map contains an entry with the key.
+	 * @param key The key to look for.
+	 * @return true if the map contains the key, false otherwise.
+	 */
+	public boolean containsKey(K key) {
+		return slotOf(key) >= 0;
+	}
+
+	/**
+	 * Removes the entry with the indicated key.
+	 * @param key The key of the entry to be removed.
+	 */
+	public void remove(K key) {
+
+		int slot = slotOf(key);
+		if (slot < 0) {
+			return;
+		}
+
+		// Shift back the entries of the probe sequence to fill the gap.
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		K nextKey;
+		while ((nextKey = keys[next]) != null) {
+			int home = hash(nextKey);
+			if (((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = nextKey;
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = null;
+		values[gap] = 0;
+		entriesCount--;
+	}
+
+	/**
+	 * Removes all the entries of the map.
+	 */
+	public void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(values, 0);
+		entriesCount = 0;
+	}
+
+	/**
+	 * Gets the number of entries of the map.
+	 * @return The number of entries of the map.
+	 */
+	public int size() {
+		return entriesCount;
+	}
+
+	/**
+	 * Gets all the keys of the map.
+	 * @return A list with the keys of the map.
+	 */
+	public List<K> keys() {
+
+		List<K> keysList = new ArrayList<K>(entriesCount);
+		int i = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				keysList.add(i, keys[slot]);
+				i++;
+			}
+		}
+		return keysList;
+	}
+
+	/**
+	 * Gets all the values of the map, in the same order as the keys.
+	 * @return An array with the values of the map.
+	 */
+	public int[] values() {
+
+		int[] valuesArray = new int[entriesCount];
+		int i = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != null) {
+				valuesArray[i++] = values[slot];
+			}
+		}
+		return valuesArray;
+	}
+
+	/**
+	 * Gets the home slot of the key.
+	 * @param key The key whose hash value to be got.
+	 * @return The hash value of the key.
+	 */
+	private int hash(K key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Gets the slot of the table that contains the indicated key.
+	 * @param key The key to look for.
+	 * @return The slot of the key if it is in the table, or -(freeSlot + 1) where freeSlot
+	 * is the slot in which the key would be put.
+	 */
+	private int slotOf(K key) {
+
+		int slot = hash(key);
+		K slotKey;
+		while ((slotKey = keys[slot]) != null) {
+			if (slotKey == key || slotKey.equals(key)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -(slot + 1);
+	}
+
+	/**
+	 * Puts a new entry in a free slot, growing the table first if needed.
+	 * @param slot The free slot found for the key.
+	 * @param key The key of the entry.
+	 * @param value The value of the entry.
+	 */
+	private void insert(int slot, K key, int value) {
+
+		if (entriesCount >= resizeThreshold) {
+			resize();
+			slot = -(slotOf(key) + 1);
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		entriesCount++;
+	}
+
+	/**
+	 * Doubles the length of the table and rehashes its entries.
+	 */
+	private void resize() {
+
+		if (keys.length >= MAX_TABLE_LENGTH) {
+			throw new IllegalStateException("Maximum capacity reached");
+		}
+
+		K[] oldKeys = keys;
+		int[] oldValues = values;
+		initialize(oldKeys.length * 2);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = -(slotOf(oldKeys[i]) + 1);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
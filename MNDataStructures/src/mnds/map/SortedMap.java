@@ -1,5 +1,7 @@
 package mnds.map;
 
+import java.util.NoSuchElementException;
+
 import mnds.list.List;
 
 /**
@@ -11,6 +13,38 @@ import mnds.list.List;
  */
 public interface SortedMap<K extends Comparable<K>, V> extends Map<K, V> {
 
+	/**
+	 * A cursor that goes over a range of entries of the sorted map one at a time.
+	 * The entries are read on demand, so no list of the range is built and no object
+	 * is created per entry. The map must not be modified while a cursor is in use.
+	 *
+	 * @param <K> The type of the keys.
+	 * @param <V> The type of the values.
+	 */
+	public interface Cursor<K, V> {
+
+		/**
+		 * Moves the cursor to the next entry of the range.
+		 * The cursor is before the first entry when it is created.
+		 * @return true if the cursor is on an entry, false if there are no more entries.
+		 */
+		public boolean next();
+
+		/**
+		 * Gets the key of the entry the cursor is on.
+		 * @return The key of the current entry.
+		 * @throws NoSuchElementException If the cursor isn't on an entry.
+		 */
+		public K key() throws NoSuchElementException;
+
+		/**
+		 * Gets the value of the entry the cursor is on.
+		 * @return The value of the current entry.
+		 * @throws NoSuchElementException If the cursor isn't on an entry.
+		 */
+		public V value() throws NoSuchElementException;
+	}
+
 	/**
 	 * Gets the entry with the least key.
 	 * @return The entry with the least key.
@@ -41,7 +75,28 @@ public interface SortedMap<K extends Comparable<K>, V> extends Map<K, V> {
 	/**
 	 * Gets the entries with keys greater than or equal to the indicated.
 	 * @param key The key that delimits the returned entries.
-	 * @return An ordered list of the entries with keys down to the indicated.
+	 * @return A list of the entries with keys down to the indicated, from the
+	 * greatest key to the least.
 	 */
 	List<Entry<K, V>> descendentsDownTo(K key);
+	
+	/**
+	 * Gets a cursor over the entries in ascending order of key.
+	 * @param from The key where the cursor starts, or null to start at the least key.
+	 * @param inclusive true to include the entry with the key from, false to start after it.
+	 * @param limit The maximum number of entries the cursor goes over.
+	 * @return A cursor before the first entry of the range.
+	 * @throws IllegalArgumentException If the limit is negative.
+	 */
+	Cursor<K, V> ascendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException;
+	
+	/**
+	 * Gets a cursor over the entries in descending order of key.
+	 * @param from The key where the cursor starts, or null to start at the greatest key.
+	 * @param inclusive true to include the entry with the key from, false to start before it.
+	 * @param limit The maximum number of entries the cursor goes over.
+	 * @return A cursor before the first entry of the range.
+	 * @throws IllegalArgumentException If the limit is negative.
+	 */
+	Cursor<K, V> descendingCursor(K from, boolean inclusive, int limit) throws IllegalArgumentException;
 }
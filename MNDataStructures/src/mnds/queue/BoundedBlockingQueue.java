@@ -0,0 +1,304 @@
+package mnds.queue;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import mnds.list.List;
+
+/**
+ * A bounded queue that can be shared by many threads, where the consumers can wait
+ * for elements and the producers can wait for room.
+ * <p>
+ * The elements are kept in an ArrayQueue whose capacity is never exceeded, guarded by
+ * a single lock with one condition for waiting consumers and another for waiting
+ * producers. The lock and the conditions are the ones of java.util.concurrent instead
+ * of monitors, so a virtual thread that waits is unmounted from its carrier thread.
+ * <p>
+ * The elements can't be null, so poll can use null to tell the queue is empty.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the queue.
+ */
+public class BoundedBlockingQueue<E> implements Queue<E> {
+
+	private final ArrayQueue<E> elements;
+	private final int capacity;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+
+	/**
+	 * Creates a new BoundedBlockingQueue that can hold the indicated number of elements.
+	 * @param capacity The maximum number of elements of the queue.
+	 * @throws IllegalArgumentException If the capacity isn't positive.
+	 */
+	public BoundedBlockingQueue(int capacity) throws IllegalArgumentException {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity");
+		}
+		this.capacity = capacity;
+		elements = new ArrayQueue<E>(capacity);
+	}
+
+	/**
+	 * Adds an element to the end of the queue without waiting.
+	 * @param element The element to be enqueued.
+	 * @throws IllegalStateException If the queue is full.
+	 */
+	@Override
+	public void enqueue(E element) throws IllegalStateException {
+		if (!offer(element)) {
+			throw new IllegalStateException("Full queue");
+		}
+	}
+
+	/**
+	 * Adds an element to the end of the queue if there is room for it, without waiting.
+	 * @param element The element to be enqueued.
+	 * @return true if the element has been enqueued, false if the queue is full.
+	 */
+	public boolean offer(E element) {
+		checkElement(element);
+		lock.lock();
+		try {
+			if (elements.size() == capacity) {
+				return false;
+			}
+			insert(element);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds an element to the end of the queue, waiting up to the indicated time for room.
+	 * @param element The element to be enqueued.
+	 * @param timeout The maximum time to wait.
+	 * @param unit The unit of the timeout.
+	 * @return true if the element has been enqueued, false if the time ran out.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+		checkElement(element);
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (elements.size() == capacity) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+			insert(element);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Adds an element to the end of the queue, waiting for room if it is full.
+	 * @param element The element to be enqueued.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public void put(E element) throws InterruptedException {
+		checkElement(element);
+		lock.lockInterruptibly();
+		try {
+			while (elements.size() == capacity) {
+				notFull.await();
+			}
+			insert(element);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public E dequeue() throws NoSuchElementException {
+		E element = poll();
+		if (element == null) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return element;
+	}
+
+	/**
+	 * Gets and removes the element at the front of the queue if there is one, without waiting.
+	 * @return The dequeued element, or null if the queue is empty.
+	 */
+	public E poll() {
+		lock.lock();
+		try {
+			return elements.size() == 0 ? null : extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets and removes the element at the front of the queue, waiting up to the
+	 * indicated time for one.
+	 * @param timeout The maximum time to wait.
+	 * @param unit The unit of the timeout.
+	 * @return The dequeued element, or null if the time ran out.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while (elements.size() == 0) {
+				if (nanos <= 0) {
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets and removes the element at the front of the queue, waiting for one if it is empty.
+	 * @return The dequeued element.
+	 * @throws InterruptedException If the thread is interrupted while waiting.
+	 */
+	public E take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while (elements.size() == 0) {
+				notEmpty.await();
+			}
+			return extract();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes up to the indicated number of elements from the front of the queue and
+	 * adds them to the end of the list, taking the lock only once and without waiting.
+	 * An element is dequeued only after the list has accepted it, so if the list throws
+	 * an exception the element stays in the queue, and the waiting producers are still
+	 * signaled for the elements already moved.
+	 * @param list The list that receives the dequeued elements.
+	 * @param maxElements The maximum number of elements to dequeue.
+	 * @return The number of elements that have been dequeued.
+	 * @throws IllegalArgumentException If the maximum number of elements is negative.
+	 */
+	public int drainTo(List<? super E> list, int maxElements) throws IllegalArgumentException {
+
+		if (maxElements < 0) {
+			throw new IllegalArgumentException("Invalid limit");
+		}
+
+		lock.lock();
+		int removed = 0;
+		try {
+			int count = Math.min(maxElements, elements.size());
+			while (removed < count) {
+				list.add(list.size(), elements.front());
+				elements.dequeue();
+				removed++;
+			}
+			return removed;
+		} finally {
+			if (removed > 0) {
+				notFull.signalAll();
+			}
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public E front() throws NoSuchElementException {
+		lock.lock();
+		try {
+			if (elements.size() == 0) {
+				throw new NoSuchElementException("Empty queue");
+			}
+			return elements.front();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		lock.lock();
+		try {
+			elements.clear();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return elements.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the number of elements that can be enqueued without waiting.
+	 * @return The free room of the queue.
+	 */
+	public int remainingCapacity() {
+		lock.lock();
+		try {
+			return capacity - elements.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Gets the maximum number of elements of the queue.
+	 * @return The capacity of the queue.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Enqueues an element and wakes up a waiting consumer. Must hold the lock.
+	 * @param element The element to be enqueued.
+	 */
+	private void insert(E element) {
+		elements.enqueue(element);
+		notEmpty.signal();
+	}
+
+	/**
+	 * Dequeues an element and wakes up a waiting producer. Must hold the lock
+	 * and the queue must not be empty.
+	 * @return The dequeued element.
+	 */
+	private E extract() {
+		E element = elements.dequeue();
+		notFull.signal();
+		return element;
+	}
+
+	/**
+	 * Checks that an element can be enqueued.
+	 * @param element The element to check.
+	 * @throws NullPointerException If the element is null.
+	 */
+	private void checkElement(E element) throws NullPointerException {
+		if (element == null) {
+			throw new NullPointerException();
+		}
+	}
+}
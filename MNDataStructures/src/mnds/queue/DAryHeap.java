@@ -0,0 +1,195 @@
+package mnds.queue;
+
+import java.util.NoSuchElementException;
+
+/**
+ * The array based implementation of the priority queue ADT as a d-ary heap.
+ * <p>
+ * The children of the element at index i are at the indexes d*i+1 to d*i+d. A higher
+ * arity makes the heap shallower, so enqueue does fewer comparisons and the children
+ * compared by dequeue lie next to each other in memory, at the cost of comparing
+ * more children per level. An arity of 2 gives the classic binary heap, and 4 is
+ * usually a good choice for large heaps.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the priority queue.
+ */
+public class DAryHeap<E extends Comparable<E>> implements PriorityQueue<E> {
+
+	private E[] elements;
+	private int elementsCount = 0;
+	private final int arity;
+
+	private static final int DEFAULT_ARITY = 4;
+	private static final int DEFAULT_INITIAL_CAPACITY = 8;
+
+	/**
+	 * Creates a new DAryHeap with the default arity and initial capacity.
+	 */
+	public DAryHeap() {
+		this(DEFAULT_ARITY, DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a new DAryHeap with the indicated arity and the default initial capacity.
+	 * @param arity The number of children of each element of the heap.
+	 * @throws IllegalArgumentException If the arity is less than 2.
+	 */
+	public DAryHeap(int arity) throws IllegalArgumentException {
+		this(arity, DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a new DAryHeap with the indicated arity and initial capacity.
+	 * @param arity The number of children of each element of the heap.
+	 * @param initialCapacity The initial capacity of the DAryHeap.
+	 * @throws IllegalArgumentException If the arity is less than 2 or the capacity is negative.
+	 */
+	@SuppressWarnings("unchecked")
+	public DAryHeap(int arity, int initialCapacity) throws IllegalArgumentException {
+		if (arity < 2) {
+			throw new IllegalArgumentException("Invalid arity");
+		}
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("Invalid capacity");
+		}
+		this.arity = arity;
+		elements = (E[]) new Comparable<?>[Math.max(initialCapacity, 1)];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void enqueue(E element) {
+
+		if (element == null) {
+			throw new NullPointerException();
+		}
+
+		// Resize the array if full.
+		if (elementsCount >= elements.length) {
+			E[] newArray = (E[]) new Comparable<?>[elements.length * 2];
+			System.arraycopy(elements, 0, newArray, 0, elementsCount);
+			elements = newArray;
+		}
+
+		siftUp(elementsCount, element);
+		elementsCount++;
+	}
+
+	@Override
+	public E dequeue() throws NoSuchElementException {
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		E least = elements[0];
+		elementsCount--;
+		E last = elements[elementsCount];
+		elements[elementsCount] = null;
+		if (elementsCount > 0) {
+			siftDown(0, last);
+		}
+		return least;
+	}
+
+	@Override
+	public E front() throws NoSuchElementException {
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return elements[0];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void heapify(E[] newElements) throws NullPointerException {
+
+		// The current elements are kept if the new ones can't be used.
+		for (int i = 0; i < newElements.length; i++) {
+			if (newElements[i] == null) {
+				throw new NullPointerException();
+			}
+		}
+
+		if (newElements.length > elements.length) {
+			elements = (E[]) new Comparable<?>[newElements.length];
+		} else {
+			for (int i = newElements.length; i < elementsCount; i++) {
+				elements[i] = null;
+			}
+		}
+		System.arraycopy(newElements, 0, elements, 0, newElements.length);
+		elementsCount = newElements.length;
+
+		// Sift down every element that has children, from the last one to the root.
+		for (int i = (elementsCount - 2) / arity; i >= 0; i--) {
+			siftDown(i, elements[i]);
+		}
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < elementsCount; i++) {
+			elements[i] = null;
+		}
+		elementsCount = 0;
+	}
+
+	@Override
+	public int size() {
+		return elementsCount;
+	}
+
+	/**
+	 * Gets the number of children of each element of the heap.
+	 * @return The arity of the heap.
+	 */
+	public int arity() {
+		return arity;
+	}
+
+	/**
+	 * Moves the hole at the indicated index up while its parent is greater than
+	 * the element, and then puts the element in it.
+	 * @param index The index of the hole.
+	 * @param element The element to place.
+	 */
+	private void siftUp(int index, E element) {
+		while (index > 0) {
+			int parent = (index - 1) / arity;
+			if (element.compareTo(elements[parent]) >= 0) {
+				break;
+			}
+			elements[index] = elements[parent];
+			index = parent;
+		}
+		elements[index] = element;
+	}
+
+	/**
+	 * Moves the hole at the indicated index down while its least child is less than
+	 * the element, and then puts the element in it.
+	 * @param index The index of the hole.
+	 * @param element The element to place.
+	 */
+	private void siftDown(int index, E element) {
+		while (true) {
+			int firstChild = arity * index + 1;
+			if (firstChild >= elementsCount || firstChild < 0) {
+				break;
+			}
+			int lastChild = Math.min(firstChild + arity, elementsCount);
+			int leastChild = firstChild;
+			for (int child = firstChild + 1; child < lastChild; child++) {
+				if (elements[child].compareTo(elements[leastChild]) < 0) {
+					leastChild = child;
+				}
+			}
+			if (elements[leastChild].compareTo(element) >= 0) {
+				break;
+			}
+			elements[index] = elements[leastChild];
+			index = leastChild;
+		}
+		elements[index] = element;
+	}
+}
@@ -0,0 +1,161 @@
+package mnds.queue;
+
+import java.util.NoSuchElementException;
+
+/**
+ * An array based queue of long elements that doesn't box them.
+ * It has the same operations as the queue ADT, plus bulk enqueue and dequeue.
+ * The elements are kept in a circular array whose length is a power of two,
+ * so the indexes are masked instead of divided.
+ * @author Mehdi Nasef.
+ */
+public class LongArrayQueue {
+
+	private long[] elements;
+	private int mask;
+	private int front = 0;
+	private int elementsCount = 0;
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 8;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * Creates a new LongArrayQueue with the default initial capacity.
+	 */
+	public LongArrayQueue() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a new LongArrayQueue with the indicated initial capacity.
+	 * @param initialCapacity The initial capacity of the LongArrayQueue.
+	 * @throws IllegalArgumentException If the initial capacity is negative or greater than 2^30.
+	 */
+	public LongArrayQueue(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Invalid initial capacity");
+		}
+		elements = new long[lengthFor(initialCapacity)];
+		mask = elements.length - 1;
+	}
+
+	/**
+	 * Adds an element to the end of the queue.
+	 * @param element The element to be enqueued.
+	 * @throws IllegalStateException If the queue already has 2^30 elements.
+	 */
+	public void enqueue(long element) {
+		if (elementsCount == elements.length) {
+			resize(elementsCount + 1);
+		}
+		elements[(front + elementsCount) & mask] = element;
+		elementsCount++;
+	}
+
+	/**
+	 * Adds all the elements of the array to the end of the queue, in order.
+	 * @param source The elements to be enqueued.
+	 * @throws IllegalStateException If the queue would have more than 2^30 elements.
+	 */
+	public void enqueueAll(long[] source) {
+		if (source.length > elements.length - elementsCount) {
+			resize(elementsCount + source.length);
+		}
+		int end = (front + elementsCount) & mask;
+		// The elements may wrap around the end of the array.
+		int firstPart = Math.min(source.length, elements.length - end);
+		System.arraycopy(source, 0, elements, end, firstPart);
+		System.arraycopy(source, firstPart, elements, 0, source.length - firstPart);
+		elementsCount += source.length;
+	}
+
+	/**
+	 * Gets and removes the element at the front of the queue.
+	 * @return The dequeued element.
+	 * @throws NoSuchElementException If the queue is empty.
+	 */
+	public long dequeue() throws NoSuchElementException {
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		long frontElement = elements[front];
+		front = (front + 1) & mask;
+		elementsCount--;
+		return frontElement;
+	}
+
+	/**
+	 * Dequeues as many elements as fit in the array, in order.
+	 * @param target The array that receives the dequeued elements.
+	 * @return The number of elements that have been dequeued.
+	 */
+	public int drainTo(long[] target) {
+		int count = Math.min(elementsCount, target.length);
+		int firstPart = Math.min(count, elements.length - front);
+		System.arraycopy(elements, front, target, 0, firstPart);
+		System.arraycopy(elements, 0, target, firstPart, count - firstPart);
+		front = (front + count) & mask;
+		elementsCount -= count;
+		return count;
+	}
+
+	/**
+	 * Gets without removing the element at the front of the queue.
+	 * @return The element at the front of the queue.
+	 * @throws NoSuchElementException If the queue is empty.
+	 */
+	public long front() throws NoSuchElementException {
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return elements[front];
+	}
+
+	/**
+	 * Removes all the elements from the queue.
+	 */
+	public void clear() {
+		front = 0;
+		elementsCount = 0;
+	}
+
+	/**
+	 * Gets the number of elements the queue contains.
+	 * @return The number of elements the queue has.
+	 */
+	public int size() {
+		return elementsCount;
+	}
+
+	/**
+	 * Moves the elements to a new array that can hold at least the indicated
+	 * number of elements, starting at index 0.
+	 * @param minCapacity The number of elements the new array must be able to hold.
+	 * @throws IllegalStateException If the capacity is greater than 2^30.
+	 */
+	private void resize(int minCapacity) throws IllegalStateException {
+		if (minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+			throw new IllegalStateException("Full queue");
+		}
+		long[] newArray = new long[lengthFor(minCapacity)];
+		int firstPart = Math.min(elementsCount, elements.length - front);
+		System.arraycopy(elements, front, newArray, 0, firstPart);
+		System.arraycopy(elements, 0, newArray, firstPart, elementsCount - firstPart);
+		elements = newArray;
+		mask = elements.length - 1;
+		front = 0;
+	}
+
+	/**
+	 * Gets the least power of two that is greater than or equal to the capacity.
+	 * @param capacity The number of elements the array must hold.
+	 * @return The length of the array.
+	 */
+	private static int lengthFor(int capacity) {
+		int length = 1;
+		while (length < capacity) {
+			length *= 2;
+		}
+		return length;
+	}
+}
@@ -0,0 +1,170 @@
+package mnds.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The lock-free linked implementation of the Queue ADT for many producer
+ * and many consumer threads, using the Michael-Scott algorithm.
+ * <p>
+ * The queue always starts with a dummy cell, and the front element is the one of
+ * the cell after it. The producers link a new cell after the last one with a
+ * compare-and-set and then try to move the end to it. The consumers move the front
+ * with a compare-and-set. When a thread finds the end lagging behind, it moves it
+ * forward before going on, so no thread ever waits for another one.
+ * <p>
+ * The elements can't be null. The size is kept in two counters that spread the
+ * updates among threads, so it is only an estimate while the queue is modified.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the queue.
+ */
+public class MpmcLinkedQueue<E> implements Queue<E> {
+
+	private volatile Cell<E> front;
+	private volatile Cell<E> end;
+
+	private final LongAdder enqueuedCount = new LongAdder();
+	private final LongAdder dequeuedCount = new LongAdder();
+
+	private static final VarHandle FRONT;
+	private static final VarHandle END;
+	private static final VarHandle NEXT;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			FRONT = lookup.findVarHandle(MpmcLinkedQueue.class, "front", Cell.class);
+			END = lookup.findVarHandle(MpmcLinkedQueue.class, "end", Cell.class);
+			NEXT = lookup.findVarHandle(Cell.class, "next", Cell.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static class Cell<E> {
+		private volatile E content;
+		private volatile Cell<E> next = null;
+
+		/**
+		 * Creates a new Cell with the indicated content.
+		 * @param content The content of the Cell.
+		 */
+		public Cell(E content) {
+			this.content = content;
+		}
+	}
+
+	/**
+	 * Creates an empty MpmcLinkedQueue.
+	 */
+	public MpmcLinkedQueue() {
+		Cell<E> dummy = new Cell<E>(null);
+		front = dummy;
+		end = dummy;
+	}
+
+	@Override
+	public void enqueue(E element) {
+
+		if (element == null) {
+			throw new NullPointerException();
+		}
+
+		Cell<E> newCell = new Cell<E>(element);
+
+		while (true) {
+			Cell<E> last = end;
+			Cell<E> next = last.next;
+			if (last != end) {
+				continue;
+			}
+			if (next == null) {
+				if (NEXT.compareAndSet(last, null, newCell)) {
+					// If this fails another thread has already moved the end.
+					END.compareAndSet(this, last, newCell);
+					enqueuedCount.increment();
+					return;
+				}
+			} else {
+				END.compareAndSet(this, last, next);
+			}
+		}
+	}
+
+	@Override
+	public E dequeue() throws NoSuchElementException {
+		E element = tryDequeue();
+		if (element == null) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return element;
+	}
+
+	/**
+	 * Gets and removes the element at the front of the queue if there is one.
+	 * @return The dequeued element, or null if the queue is empty.
+	 */
+	public E tryDequeue() {
+
+		while (true) {
+			Cell<E> first = front;
+			Cell<E> last = end;
+			Cell<E> next = first.next;
+			if (first != front) {
+				continue;
+			}
+			if (first == last) {
+				if (next == null) {
+					return null;
+				}
+				END.compareAndSet(this, last, next);
+			} else {
+				E element = next.content;
+				if (FRONT.compareAndSet(this, first, next)) {
+					// The cell becomes the new dummy, so it must not keep the element.
+					next.content = null;
+					dequeuedCount.increment();
+					return element;
+				}
+			}
+		}
+	}
+
+	@Override
+	public E front() throws NoSuchElementException {
+		while (true) {
+			Cell<E> next = front.next;
+			if (next == null) {
+				throw new NoSuchElementException("Empty queue");
+			}
+			E element = next.content;
+			// A null content means it was dequeued meanwhile.
+			if (element != null) {
+				return element;
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		while (tryDequeue() != null) {
+		}
+	}
+
+	/**
+	 * Gets an estimate of the number of elements the queue contains.
+	 * It is exact only when no other thread is modifying the queue.
+	 * @return The number of elements the queue has.
+	 */
+	@Override
+	public int size() {
+		long count = enqueuedCount.sum() - dequeuedCount.sum();
+		if (count < 0) {
+			return 0;
+		}
+		return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+	}
+}
@@ -0,0 +1,162 @@
+package mnds.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The lock-free linked implementation of the Queue ADT for many producer
+ * threads and a single consumer thread, using the Vyukov algorithm.
+ * <p>
+ * A producer swaps the end of the queue with its new cell in a single atomic
+ * operation and then links the previous end to it, so producers never retry.
+ * The consumer owns the front dummy cell and just follows the links, with no
+ * compare-and-set at all. Between the swap and the link of a producer the new cell
+ * is not reachable yet, so the consumer may briefly spin waiting for it.
+ * <p>
+ * Any thread can call enqueue, but only one consumer thread can call dequeue,
+ * tryDequeue, front and clear. The elements can't be null.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the queue.
+ */
+public class MpscLinkedQueue<E> implements Queue<E> {
+
+	// Only the consumer reads and writes the front.
+	private Cell<E> front;
+	private volatile Cell<E> end;
+
+	private final LongAdder enqueuedCount = new LongAdder();
+	// Written only by the consumer.
+	private long dequeuedCount = 0;
+
+	private static final VarHandle END;
+	private static final VarHandle NEXT;
+	private static final VarHandle DEQUEUED_COUNT;
+
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			END = lookup.findVarHandle(MpscLinkedQueue.class, "end", Cell.class);
+			NEXT = lookup.findVarHandle(Cell.class, "next", Cell.class);
+			DEQUEUED_COUNT = lookup.findVarHandle(MpscLinkedQueue.class, "dequeuedCount", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static class Cell<E> {
+		private E content;
+		private Cell<E> next = null;
+
+		/**
+		 * Creates a new Cell with the indicated content.
+		 * @param content The content of the Cell.
+		 */
+		public Cell(E content) {
+			this.content = content;
+		}
+	}
+
+	/**
+	 * Creates an empty MpscLinkedQueue.
+	 */
+	public MpscLinkedQueue() {
+		Cell<E> dummy = new Cell<E>(null);
+		front = dummy;
+		end = dummy;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void enqueue(E element) {
+
+		if (element == null) {
+			throw new NullPointerException();
+		}
+
+		Cell<E> newCell = new Cell<E>(element);
+		Cell<E> previous = (Cell<E>) END.getAndSet(this, newCell);
+		// The release store publishes the content of the cell to the consumer.
+		NEXT.setRelease(previous, newCell);
+		enqueuedCount.increment();
+	}
+
+	@Override
+	public E dequeue() throws NoSuchElementException {
+		E element = tryDequeue();
+		if (element == null) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return element;
+	}
+
+	/**
+	 * Gets and removes the element at the front of the queue if there is one.
+	 * @return The dequeued element, or null if the queue is empty.
+	 */
+	public E tryDequeue() {
+
+		Cell<E> next = nextOfFront();
+		if (next == null) {
+			return null;
+		}
+
+		E element = next.content;
+		// The cell becomes the new dummy, so it must not keep the element.
+		next.content = null;
+		front = next;
+		DEQUEUED_COUNT.setOpaque(this, dequeuedCount + 1);
+		return element;
+	}
+
+	@Override
+	public E front() throws NoSuchElementException {
+		Cell<E> next = nextOfFront();
+		if (next == null) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return next.content;
+	}
+
+	/**
+	 * Gets the cell after the front dummy cell, waiting for it if a producer
+	 * has already taken the end but hasn't linked its cell yet.
+	 * @return The cell with the front element, or null if the queue is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	private Cell<E> nextOfFront() {
+		Cell<E> next = (Cell<E>) NEXT.getAcquire(front);
+		if (next == null) {
+			if (front == end) {
+				return null;
+			}
+			do {
+				Thread.onSpinWait();
+				next = (Cell<E>) NEXT.getAcquire(front);
+			} while (next == null);
+		}
+		return next;
+	}
+
+	@Override
+	public void clear() {
+		while (tryDequeue() != null) {
+		}
+	}
+
+	/**
+	 * Gets an estimate of the number of elements the queue contains.
+	 * It is exact only when no other thread is modifying the queue.
+	 * @return The number of elements the queue has.
+	 */
+	@Override
+	public int size() {
+		long count = enqueuedCount.sum() - (long) DEQUEUED_COUNT.getOpaque(this);
+		if (count < 0) {
+			return 0;
+		}
+		return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+	}
+}
@@ -0,0 +1,269 @@
+package mnds.queue;
+
+import java.util.NoSuchElementException;
+
+import mnds.stack.ArrayStack;
+
+/**
+ * The linked implementation of the priority queue ADT as a pairing heap.
+ * <p>
+ * The heap is a tree where every node is less than or equal to its children.
+ * Enqueueing links a new node with the root, and dequeueing links the children of
+ * the root in pairs from left to right and then all the pairs from right to left.
+ * Every node is a Handle that the caller can keep to decrease its element later:
+ * the node is cut from its parent and linked again with the root, which takes
+ * constant amortized time.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the priority queue.
+ */
+public class PairingHeap<E extends Comparable<E>> implements PriorityQueue<E> {
+
+	private Handle<E> root = null;
+	private int elementsCount = 0;
+
+	/**
+	 * Creates an empty PairingHeap.
+	 */
+	public PairingHeap() {
+	}
+
+	@Override
+	public void enqueue(E element) {
+		insert(element);
+	}
+
+	/**
+	 * Adds an element to the priority queue.
+	 * @param element The element to be enqueued.
+	 * @return The handle to decrease the element while it is in the priority queue.
+	 */
+	public Handle<E> insert(E element) {
+
+		if (element == null) {
+			throw new NullPointerException();
+		}
+
+		Handle<E> handle = new Handle<E>(this, element);
+		root = root == null ? handle : link(root, handle);
+		elementsCount++;
+		return handle;
+	}
+
+	/**
+	 * Replaces the element of a handle with a lesser or equal one, moving it towards
+	 * the front of the priority queue.
+	 * @param handle The handle returned when the element was enqueued.
+	 * @param newElement The new element of the handle.
+	 * @throws IllegalArgumentException If the handle is not in this priority queue or
+	 * the new element is greater than the current one.
+	 */
+	public void decreaseKey(Handle<E> handle, E newElement) throws IllegalArgumentException {
+
+		if (handle.owner != this) {
+			throw new IllegalArgumentException("The handle is not in this queue");
+		}
+		if (newElement.compareTo(handle.element) > 0) {
+			throw new IllegalArgumentException("The new element is greater than the current one");
+		}
+
+		handle.element = newElement;
+		if (handle == root) {
+			return;
+		}
+
+		// Cut the handle with its subtree from its parent and link it with the root.
+		if (handle.previous.child == handle) {
+			handle.previous.child = handle.sibling;
+		} else {
+			handle.previous.sibling = handle.sibling;
+		}
+		if (handle.sibling != null) {
+			handle.sibling.previous = handle.previous;
+		}
+		handle.previous = null;
+		handle.sibling = null;
+		root = link(root, handle);
+	}
+
+	@Override
+	public E dequeue() throws NoSuchElementException {
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		Handle<E> least = root;
+		root = mergePairs(least.child);
+		least.child = null;
+		least.owner = null;
+		elementsCount--;
+		return least.element;
+	}
+
+	@Override
+	public E front() throws NoSuchElementException {
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return root.element;
+	}
+
+	/**
+	 * Replaces the elements of the priority queue with the ones of the array.
+	 * Each element is linked with the root in constant time.
+	 * <p>
+	 * The handles of the new elements aren't returned, so their elements can't be
+	 * decreased. To decrease them later, insert the elements one by one instead, which
+	 * also takes constant time for each one and returns their handles.
+	 * @param elements The elements the priority queue will contain.
+	 * @throws NullPointerException If an element is null, the priority queue isn't changed.
+	 */
+	@Override
+	public void heapify(E[] elements) throws NullPointerException {
+		for (int i = 0; i < elements.length; i++) {
+			if (elements[i] == null) {
+				throw new NullPointerException();
+			}
+		}
+		clear();
+		for (int i = 0; i < elements.length; i++) {
+			insert(elements[i]);
+		}
+	}
+
+	/**
+	 * Removes all the elements from the priority queue, invalidating their handles.
+	 */
+	@Override
+	public void clear() {
+		if (root != null) {
+			ArrayStack<Handle<E>> pendingHandles = new ArrayStack<Handle<E>>();
+			pendingHandles.push(root);
+			while (pendingHandles.size() > 0) {
+				Handle<E> handle = pendingHandles.pop();
+				if (handle.sibling != null) {
+					pendingHandles.push(handle.sibling);
+				}
+				if (handle.child != null) {
+					pendingHandles.push(handle.child);
+				}
+				handle.owner = null;
+				handle.child = null;
+				handle.sibling = null;
+				handle.previous = null;
+			}
+		}
+		root = null;
+		elementsCount = 0;
+	}
+
+	@Override
+	public int size() {
+		return elementsCount;
+	}
+
+	/**
+	 * Links two roots, making the greater one the first child of the other.
+	 * @param first The first root.
+	 * @param second The second root.
+	 * @return The root of the linked tree.
+	 */
+	private Handle<E> link(Handle<E> first, Handle<E> second) {
+		if (second.element.compareTo(first.element) < 0) {
+			Handle<E> temp = first;
+			first = second;
+			second = temp;
+		}
+		second.sibling = first.child;
+		if (first.child != null) {
+			first.child.previous = second;
+		}
+		second.previous = first;
+		first.child = second;
+		return first;
+	}
+
+	/**
+	 * Links a list of siblings in pairs from left to right, and then the pairs
+	 * from right to left.
+	 * @param first The first sibling of the list.
+	 * @return The root of the resulting tree, or null if the list is empty.
+	 */
+	private Handle<E> mergePairs(Handle<E> first) {
+
+		if (first == null) {
+			return null;
+		}
+
+		// The linked pairs are kept in reverse order through their sibling references.
+		Handle<E> pairs = null;
+		while (first != null) {
+			Handle<E> second = first.sibling;
+			first.previous = null;
+			if (second == null) {
+				first.sibling = pairs;
+				pairs = first;
+				break;
+			}
+			Handle<E> next = second.sibling;
+			first.sibling = null;
+			second.sibling = null;
+			second.previous = null;
+			Handle<E> pair = link(first, second);
+			pair.sibling = pairs;
+			pairs = pair;
+			first = next;
+		}
+
+		Handle<E> result = pairs;
+		pairs = pairs.sibling;
+		result.sibling = null;
+		while (pairs != null) {
+			Handle<E> next = pairs.sibling;
+			pairs.sibling = null;
+			result = link(result, pairs);
+			pairs = next;
+		}
+		return result;
+	}
+
+	/**
+	 * A node of the pairing heap, returned to the caller to decrease its element.
+	 * The previous node is the parent for the first child and the left sibling for
+	 * the others.
+	 *
+	 * @param <E> The type of the element of the handle.
+	 */
+	public static final class Handle<E extends Comparable<E>> {
+		private PairingHeap<E> owner;
+		private E element;
+		private Handle<E> child = null;
+		private Handle<E> sibling = null;
+		private Handle<E> previous = null;
+
+		/**
+		 * Creates a new Handle with the indicated element.
+		 * @param owner The heap that contains the handle.
+		 * @param element The element of the Handle.
+		 */
+		private Handle(PairingHeap<E> owner, E element) {
+			this.owner = owner;
+			this.element = element;
+		}
+
+		/**
+		 * Gets the element of the handle.
+		 * @return The element of the handle.
+		 */
+		public E getElement() {
+			return element;
+		}
+
+		/**
+		 * Tells if the element of the handle is still in its priority queue.
+		 * @return true if the element has not been dequeued.
+		 */
+		public boolean isEnqueued() {
+			return owner != null;
+		}
+	}
+}
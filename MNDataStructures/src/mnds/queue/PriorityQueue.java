@@ -0,0 +1,46 @@
+package mnds.queue;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Interface with the operations a priority queue supports.
+ * <p>
+ * The front of a priority queue is always its least element, and elements that
+ * compare as equal may be dequeued in any order.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of elements the priority queue contains.
+ */
+public interface PriorityQueue<E extends Comparable<E>> extends Queue<E> {
+
+	/**
+	 * Adds an element to the priority queue.
+	 * @param element The element to be enqueued.
+	 */
+	@Override
+	public void enqueue(E element);
+
+	/**
+	 * Gets and removes the least element of the priority queue.
+	 * @return The dequeued element.
+	 * @throws NoSuchElementException If the priority queue is empty.
+	 */
+	@Override
+	public E dequeue() throws NoSuchElementException;
+
+	/**
+	 * Gets without removing the least element of the priority queue.
+	 * @return The least element of the priority queue.
+	 * @throws NoSuchElementException If the priority queue is empty.
+	 */
+	@Override
+	public E front() throws NoSuchElementException;
+
+	/**
+	 * Replaces the elements of the priority queue with the ones of the array,
+	 * building the heap in linear time.
+	 * @param elements The elements the priority queue will contain.
+	 * @throws NullPointerException If an element is null, the priority queue isn't changed.
+	 */
+	public void heapify(E[] elements) throws NullPointerException;
+}
@@ -0,0 +1,183 @@
+package mnds.queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * The segmented array implementation of the queue ADT.
+ * <p>
+ * The elements are kept in fixed size chunks referenced from a circular directory.
+ * The element at position p, counted from the start of the front chunk, is in the
+ * chunk p >>> shift after the front one, at the position p & mask. Growing appends a
+ * new chunk and never copies the elements, only the directory of chunks is copied
+ * when it is full. When the front chunk is consumed it is released, except for a single
+ * spare chunk that is reused for the next growth, so the memory taken by a burst of
+ * elements is returned as the queue is drained.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the queue.
+ */
+public class SegmentedArrayQueue<E> implements Queue<E> {
+
+	private E[][] chunks;
+	private int directoryMask;
+	// The directory index of the chunk with the front element.
+	private int frontChunk = 0;
+	// The position of the front element in its chunk.
+	private int frontOffset = 0;
+	private int elementsCount = 0;
+	private E[] spareChunk = null;
+	private final int shift;
+	private final int mask;
+
+	private static final int DEFAULT_CHUNK_SIZE = 1024;
+	private static final int MAX_CHUNK_SIZE = 1 << 24;
+	private static final int MIN_DIRECTORY_LENGTH = 4;
+
+	/**
+	 * Creates a new SegmentedArrayQueue with the default chunk size.
+	 */
+	public SegmentedArrayQueue() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new SegmentedArrayQueue with the indicated chunk size.
+	 * @param chunkSize The number of elements of each chunk.
+	 * @throws IllegalArgumentException If the chunk size isn't a power of two or it is greater than 2^24.
+	 */
+	@SuppressWarnings("unchecked")
+	public SegmentedArrayQueue(int chunkSize) throws IllegalArgumentException {
+		if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1) {
+			throw new IllegalArgumentException("Invalid chunk size");
+		}
+		shift = Integer.numberOfTrailingZeros(chunkSize);
+		mask = chunkSize - 1;
+		chunks = (E[][]) new Object[MIN_DIRECTORY_LENGTH][];
+		directoryMask = chunks.length - 1;
+	}
+
+	/**
+	 * Adds an element to the end of the queue.
+	 * @param element The element to be enqueued.
+	 * @throws IllegalStateException If the queue is full, it can hold Integer.MAX_VALUE
+	 * minus the chunk size elements.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void enqueue(E element) throws IllegalStateException {
+
+		// The position of the new element must not overflow.
+		if (elementsCount >= Integer.MAX_VALUE - mask) {
+			throw new IllegalStateException("Full queue");
+		}
+
+		int position = frontOffset + elementsCount;
+		int chunkOffset = position >>> shift;
+		if (chunkOffset > directoryMask) {
+			resizeDirectory(chunks.length * 2);
+		}
+		int chunkIndex = (frontChunk + chunkOffset) & directoryMask;
+		if (chunks[chunkIndex] == null) {
+			if (spareChunk != null) {
+				chunks[chunkIndex] = spareChunk;
+				spareChunk = null;
+			} else {
+				chunks[chunkIndex] = (E[]) new Object[mask + 1];
+			}
+		}
+		chunks[chunkIndex][position & mask] = element;
+		elementsCount++;
+	}
+
+	@Override
+	public E dequeue() throws NoSuchElementException {
+
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+
+		E[] chunk = chunks[frontChunk];
+		E frontElement = chunk[frontOffset];
+		chunk[frontOffset] = null;
+		frontOffset++;
+		elementsCount--;
+
+		if (elementsCount == 0) {
+			// Start again at the beginning of the front chunk.
+			frontOffset = 0;
+		} else if (frontOffset > mask) {
+			// The front chunk has been consumed.
+			chunks[frontChunk] = null;
+			if (spareChunk == null) {
+				spareChunk = chunk;
+			}
+			frontChunk = (frontChunk + 1) & directoryMask;
+			frontOffset = 0;
+			shrinkDirectory();
+		}
+		return frontElement;
+	}
+
+	@Override
+	public E front() throws NoSuchElementException {
+		if (elementsCount == 0) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return chunks[frontChunk][frontOffset];
+	}
+
+	/**
+	 * Removes all the elements from the queue, releasing all the chunks but one.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void clear() {
+		E[] firstChunk = chunks[frontChunk];
+		chunks = (E[][]) new Object[MIN_DIRECTORY_LENGTH][];
+		directoryMask = chunks.length - 1;
+		if (firstChunk != null) {
+			Arrays.fill(firstChunk, null);
+			chunks[0] = firstChunk;
+		}
+		spareChunk = null;
+		frontChunk = 0;
+		frontOffset = 0;
+		elementsCount = 0;
+	}
+
+	@Override
+	public int size() {
+		return elementsCount;
+	}
+
+	/**
+	 * Halves the directory while the chunks in use take less than a quarter of it.
+	 */
+	private void shrinkDirectory() {
+		int usedChunks = (frontOffset + elementsCount + mask) >>> shift;
+		int directoryLength = chunks.length;
+		while (directoryLength > MIN_DIRECTORY_LENGTH && usedChunks < directoryLength / 4) {
+			directoryLength /= 2;
+		}
+		if (directoryLength < chunks.length) {
+			resizeDirectory(directoryLength);
+		}
+	}
+
+	/**
+	 * Moves the references to the chunks in use to a new directory, starting at index 0.
+	 * @param newLength The length of the new directory. It must be a power of two.
+	 */
+	@SuppressWarnings("unchecked")
+	private void resizeDirectory(int newLength) {
+		E[][] newChunks = (E[][]) new Object[newLength][];
+		int chunksToMove = Math.min(chunks.length, newLength);
+		for (int i = 0; i < chunksToMove; i++) {
+			newChunks[i] = chunks[(frontChunk + i) & directoryMask];
+		}
+		chunks = newChunks;
+		directoryMask = newLength - 1;
+		frontChunk = 0;
+	}
+}
@@ -0,0 +1,304 @@
+package mnds.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A bounded array based queue for one producer thread and one consumer thread.
+ * <p>
+ * It is a circular buffer like ArrayQueue, but the capacity is a power of two so
+ * the indexes are masked instead of divided. The head and the tail are counters
+ * that only grow, each one written by a single thread and published with release
+ * semantics, so no lock nor compare-and-set is needed. Each counter lives in its own
+ * padded object, together with the copy of the other counter that its thread reads,
+ * so the two threads don't write to the same cache line.
+ * <p>
+ * Only the producer thread can call enqueue, offer and offerAll, and only the
+ * consumer thread can call dequeue, poll, front, peek, drain and clear.
+ * The elements can't be null.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the queue.
+ */
+public class SpscArrayQueue<E> implements Queue<E> {
+
+	private final E[] elements;
+	private final int mask;
+
+	// The producer owns the tail and the consumer owns the head.
+	private final PaddedCounter tail = new PaddedCounter();
+	private final PaddedCounter head = new PaddedCounter();
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private static final VarHandle ELEMENT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+	/**
+	 * Creates an SpscArrayQueue that can hold at least the indicated number of elements.
+	 * @param capacity The minimum capacity of the queue. It is rounded up to a power of two.
+	 * @throws IllegalArgumentException If the capacity isn't positive or it is greater than 2^30.
+	 */
+	@SuppressWarnings("unchecked")
+	public SpscArrayQueue(int capacity) throws IllegalArgumentException {
+		if (capacity <= 0 || capacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Invalid capacity");
+		}
+		int length = 1;
+		while (length < capacity) {
+			length *= 2;
+		}
+		elements = (E[]) new Object[length];
+		mask = length - 1;
+	}
+
+	/**
+	 * Adds an element to the end of the queue.
+	 * @param element The element to be enqueued.
+	 * @throws IllegalStateException If the queue is full.
+	 */
+	@Override
+	public void enqueue(E element) throws IllegalStateException {
+		if (!offer(element)) {
+			throw new IllegalStateException("Full queue");
+		}
+	}
+
+	/**
+	 * Adds an element to the end of the queue if there is room for it.
+	 * @param element The element to be enqueued.
+	 * @return true if the element has been enqueued, false if the queue is full.
+	 */
+	public boolean offer(E element) {
+
+		if (element == null) {
+			throw new NullPointerException();
+		}
+
+		long currentTail = tail.value;
+		if (currentTail - tail.cachedOther >= elements.length) {
+			// The consumer may have moved since the last time, so its counter is read again.
+			tail.cachedOther = head.getAcquire();
+			if (currentTail - tail.cachedOther >= elements.length) {
+				return false;
+			}
+		}
+		ELEMENT.set(elements, (int) currentTail & mask, element);
+		tail.setRelease(currentTail + 1);
+		return true;
+	}
+
+	/**
+	 * Adds as many elements of the array as fit in the queue, in order,
+	 * publishing all of them at once.
+	 * @param source The array with the elements to enqueue.
+	 * @param offset The index of the first element to enqueue.
+	 * @param length The number of elements to enqueue.
+	 * @return The number of elements that have been enqueued.
+	 * @throws IllegalArgumentException If the offset or the length are negative, or the
+	 * range goes past the end of the array.
+	 * @throws NullPointerException If an element of the range is null, nothing is enqueued.
+	 */
+	public int offerAll(E[] source, int offset, int length)
+			throws IllegalArgumentException, NullPointerException {
+
+		if (offset < 0 || length < 0 || offset > source.length - length) {
+			throw new IllegalArgumentException("Invalid range");
+		}
+		// The whole range is checked first so that no element is published if one is null.
+		for (int i = offset; i < offset + length; i++) {
+			if (source[i] == null) {
+				throw new NullPointerException();
+			}
+		}
+
+		long currentTail = tail.value;
+		long free = elements.length - (currentTail - tail.cachedOther);
+		if (free < length) {
+			tail.cachedOther = head.getAcquire();
+			free = elements.length - (currentTail - tail.cachedOther);
+		}
+
+		int count = (int) Math.min(free, length);
+		for (int i = 0; i < count; i++) {
+			ELEMENT.set(elements, (int) (currentTail + i) & mask, source[offset + i]);
+		}
+		tail.setRelease(currentTail + count);
+		return count;
+	}
+
+	@Override
+	public E dequeue() throws NoSuchElementException {
+		E element = poll();
+		if (element == null) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return element;
+	}
+
+	/**
+	 * Gets and removes the element at the front of the queue if there is one.
+	 * @return The dequeued element, or null if the queue is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public E poll() {
+
+		long currentHead = head.value;
+		if (currentHead >= head.cachedOther) {
+			head.cachedOther = tail.getAcquire();
+			if (currentHead >= head.cachedOther) {
+				return null;
+			}
+		}
+		int index = (int) currentHead & mask;
+		E element = (E) ELEMENT.get(elements, index);
+		ELEMENT.set(elements, index, null);
+		head.setRelease(currentHead + 1);
+		return element;
+	}
+
+	/**
+	 * Removes up to the indicated number of elements from the front of the queue
+	 * and passes them to the consumer, releasing their slots all at once. If the
+	 * consumer throws an exception, the elements passed to it until then, including
+	 * the one it has thrown on, are removed.
+	 * @param consumer The function that receives the dequeued elements.
+	 * @param limit The maximum number of elements to dequeue.
+	 * @return The number of elements that have been dequeued.
+	 * @throws IllegalArgumentException If the limit is negative.
+	 */
+	@SuppressWarnings("unchecked")
+	public int drain(Consumer<? super E> consumer, int limit) throws IllegalArgumentException {
+
+		if (limit < 0) {
+			throw new IllegalArgumentException("Invalid limit");
+		}
+
+		long currentHead = head.value;
+		long available = head.cachedOther - currentHead;
+		if (available < limit) {
+			head.cachedOther = tail.getAcquire();
+			available = head.cachedOther - currentHead;
+		}
+
+		int count = (int) Math.min(available, limit);
+		int consumed = 0;
+		try {
+			while (consumed < count) {
+				int index = (int) (currentHead + consumed) & mask;
+				E element = (E) ELEMENT.get(elements, index);
+				ELEMENT.set(elements, index, null);
+				consumed++;
+				consumer.accept(element);
+			}
+		} finally {
+			// The cleared slots must never stay inside the range of live elements.
+			head.setRelease(currentHead + consumed);
+		}
+		return count;
+	}
+
+	@Override
+	public E front() throws NoSuchElementException {
+		E element = peek();
+		if (element == null) {
+			throw new NoSuchElementException("Empty queue");
+		}
+		return element;
+	}
+
+	/**
+	 * Gets without removing the element at the front of the queue if there is one.
+	 * @return The element at the front of the queue, or null if the queue is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		long currentHead = head.value;
+		if (currentHead >= head.cachedOther) {
+			head.cachedOther = tail.getAcquire();
+			if (currentHead >= head.cachedOther) {
+				return null;
+			}
+		}
+		return (E) ELEMENT.get(elements, (int) currentHead & mask);
+	}
+
+	/**
+	 * Removes all the elements that have been published to the queue.
+	 */
+	@Override
+	public void clear() {
+		while (poll() != null) {
+		}
+	}
+
+	/**
+	 * Gets the number of elements the queue contains. If the producer or the consumer
+	 * are running it is only an estimate.
+	 * @return The number of elements the queue has.
+	 */
+	@Override
+	public int size() {
+		while (true) {
+			long currentHead = head.getAcquire();
+			long currentTail = tail.getAcquire();
+			// The head must not have moved while the tail was read.
+			if (currentHead == head.getAcquire()) {
+				return (int) (currentTail - currentHead);
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of elements the queue can hold.
+	 * @return The capacity of the queue.
+	 */
+	public int capacity() {
+		return elements.length;
+	}
+
+	/**
+	 * The padding before the fields of a counter.
+	 */
+	private static class LeftPadding {
+		protected long p01, p02, p03, p04, p05, p06, p07;
+	}
+
+	/**
+	 * The fields of a counter. The value is written only by its owner thread, and
+	 * cachedOther is the last value of the other counter seen by the owner thread.
+	 */
+	private static class CounterFields extends LeftPadding {
+		protected long value;
+		protected long cachedOther;
+	}
+
+	/**
+	 * A counter padded on both sides so it doesn't share a cache line with other data.
+	 * The padding is split among the class hierarchy because the fields of a
+	 * superclass are always laid out before the ones of its subclasses.
+	 */
+	private static final class PaddedCounter extends CounterFields {
+
+		protected long p11, p12, p13, p14, p15, p16, p17;
+
+		private static final VarHandle VALUE;
+
+		static {
+			try {
+				VALUE = MethodHandles.lookup().findVarHandle(CounterFields.class, "value", long.class);
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		private long getAcquire() {
+			return (long) VALUE.getAcquire(this);
+		}
+
+		private void setRelease(long newValue) {
+			VALUE.setRelease(this, newValue);
+		}
+	}
+}
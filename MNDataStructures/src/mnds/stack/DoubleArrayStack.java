@@ -0,0 +1,132 @@
+package mnds.stack;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * An array based stack of double elements that doesn't box them.
+ * It has the same operations as the stack ADT, plus bulk push and pop.
+ * @author Mehdi Nasef.
+ */
+public class DoubleArrayStack {
+
+	private double[] elements;
+	private int top = -1;
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 8;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/**
+	 * Creates a new DoubleArrayStack with the default initial capacity.
+	 */
+	public DoubleArrayStack() {
+		elements = new double[DEFAULT_INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Creates a new DoubleArrayStack with the indicated initial capacity.
+	 * @param initialCapacity The initial capacity of the DoubleArrayStack.
+	 * @throws IllegalArgumentException If the initial capacity is negative or greater than 2^30.
+	 */
+	public DoubleArrayStack(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Invalid initial capacity");
+		}
+		elements = new double[Math.max(initialCapacity, 1)];
+	}
+
+	/**
+	 * Puts the element in the top of the stack.
+	 * @param element The element to push onto the stack.
+	 * @throws IllegalStateException If the stack already has 2^30 elements.
+	 */
+	public void push(double element) {
+		if ((top + 1) >= elements.length) {
+			grow(top + 2);
+		}
+		top++;
+		elements[top] = element;
+	}
+
+	/**
+	 * Pushes all the elements of the array, so the last one ends at the top of the stack.
+	 * @param source The elements to push onto the stack.
+	 * @throws IllegalStateException If the stack would have more than 2^30 elements.
+	 */
+	public void pushAll(double[] source) {
+		int newSize = top + 1 + source.length;
+		if (newSize > elements.length) {
+			grow(newSize);
+		}
+		System.arraycopy(source, 0, elements, top + 1, source.length);
+		top = newSize - 1;
+	}
+
+	/**
+	 * Gets and removes the element at the top of the stack.
+	 * @return The popped element.
+	 * @throws EmptyStackException If the stack is empty.
+	 */
+	public double pop() throws EmptyStackException {
+		if (top < 0) {
+			throw new EmptyStackException();
+		}
+		double topElement = elements[top];
+		top--;
+		return topElement;
+	}
+
+	/**
+	 * Pops as many elements as fit in the array, from the top of the stack down.
+	 * @param target The array that receives the popped elements.
+	 * @return The number of elements that have been popped.
+	 */
+	public int drainTo(double[] target) {
+		int count = Math.min(top + 1, target.length);
+		for (int i = 0; i < count; i++) {
+			target[i] = elements[top - i];
+		}
+		top -= count;
+		return count;
+	}
+
+	/**
+	 * Gets the element at the top of the stack without removing it.
+	 * @return The element at the top of the stack.
+	 * @throws EmptyStackException If the stack is empty.
+	 */
+	public double top() throws EmptyStackException {
+		if (top < 0) {
+			throw new EmptyStackException();
+		}
+		return elements[top];
+	}
+
+	/**
+	 * Empties the stack.
+	 */
+	public void clear() {
+		top = -1;
+	}
+
+	/**
+	 * Gets the number of elements the stack contains.
+	 * @return The number of elements the stack contains.
+	 */
+	public int size() {
+		return top + 1;
+	}
+
+	/**
+	 * Grows the array of elements so it can hold at least the indicated number of elements.
+	 * @param minCapacity The number of elements the array must be able to hold.
+	 * @throws IllegalStateException If the capacity is greater than 2^30.
+	 */
+	private void grow(int minCapacity) throws IllegalStateException {
+		if (minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+			throw new IllegalStateException("Full stack");
+		}
+		int newLength = Math.min(Math.max(elements.length * 2, minCapacity), MAX_CAPACITY);
+		elements = Arrays.copyOf(elements, newLength);
+	}
+}
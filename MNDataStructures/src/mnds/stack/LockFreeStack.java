@@ -0,0 +1,188 @@
+package mnds.stack;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.EmptyStackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The lock-free linked implementation of the stack ADT, using the Treiber algorithm
+ * with an elimination array.
+ * <p>
+ * Pushing and popping replace the top with a compare-and-set. When the compare-and-set
+ * fails because of contention, the thread tries the elimination array instead of
+ * retrying at once: a pusher offers its cell in a random slot and waits a little, and a
+ * popper that finds a cell in its slot takes it. Such a pair of operations cancels out
+ * without touching the top, as if the push had been followed right away by the pop.
+ * <p>
+ * Every push creates a new cell and cells are never reused, so the top can't go back to
+ * a cell a thread has already read while that thread still holds it, and the ABA problem
+ * can't happen. The size is kept in a counter that spreads the updates among threads,
+ * so it is only an estimate while the stack is modified.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the stack.
+ */
+public class LockFreeStack<E> implements Stack<E> {
+
+	private volatile Cell<E> top = null;
+	private final LongAdder elementCount = new LongAdder();
+
+	private final Cell<E>[] eliminationSlots;
+
+	// The number of times a pusher checks its slot before withdrawing its cell.
+	private static final int ELIMINATION_SPINS = 64;
+	private static final int MAX_ELIMINATION_SLOTS = 16;
+
+	private static final VarHandle TOP;
+	private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Cell[].class);
+
+	static {
+		try {
+			TOP = MethodHandles.lookup().findVarHandle(LockFreeStack.class, "top", Cell.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static class Cell<E> {
+		private final E content;
+		private Cell<E> next = null;
+
+		/**
+		 * Creates a new Cell with the indicated content.
+		 * @param element The content of the Cell.
+		 */
+		public Cell(E element) {
+			content = element;
+		}
+	}
+
+	/**
+	 * Creates a new LockFreeStack with an elimination slot per processor, up to 16.
+	 */
+	public LockFreeStack() {
+		this(Math.min(Runtime.getRuntime().availableProcessors(), MAX_ELIMINATION_SLOTS));
+	}
+
+	/**
+	 * Creates a new LockFreeStack with the indicated number of elimination slots.
+	 * @param eliminationSlots The number of slots of the elimination array.
+	 * @throws IllegalArgumentException If the number of slots isn't positive.
+	 */
+	@SuppressWarnings("unchecked")
+	public LockFreeStack(int eliminationSlots) throws IllegalArgumentException {
+		if (eliminationSlots <= 0) {
+			throw new IllegalArgumentException("Invalid number of elimination slots");
+		}
+		this.eliminationSlots = (Cell<E>[]) new Cell<?>[eliminationSlots];
+	}
+
+	@Override
+	public void push(E element) {
+
+		Cell<E> newCell = new Cell<E>(element);
+
+		while (true) {
+			Cell<E> currentTop = top;
+			newCell.next = currentTop;
+			if (TOP.compareAndSet(this, currentTop, newCell)) {
+				elementCount.increment();
+				return;
+			}
+			if (eliminatePush(newCell)) {
+				return;
+			}
+		}
+	}
+
+	@Override
+	public E pop() throws EmptyStackException {
+
+		while (true) {
+			Cell<E> currentTop = top;
+			if (currentTop == null) {
+				throw new EmptyStackException();
+			}
+			if (TOP.compareAndSet(this, currentTop, currentTop.next)) {
+				elementCount.decrement();
+				return currentTop.content;
+			}
+			Cell<E> eliminated = eliminatePop();
+			if (eliminated != null) {
+				return eliminated.content;
+			}
+		}
+	}
+
+	@Override
+	public E top() throws EmptyStackException {
+		Cell<E> currentTop = top;
+		if (currentTop == null) {
+			throw new EmptyStackException();
+		}
+		return currentTop.content;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void clear() {
+		Cell<E> removed = (Cell<E>) TOP.getAndSet(this, null);
+		long removedCount = 0;
+		while (removed != null) {
+			removedCount++;
+			removed = removed.next;
+		}
+		elementCount.add(-removedCount);
+	}
+
+	/**
+	 * Gets an estimate of the number of elements the stack contains.
+	 * It is exact only when no other thread is modifying the stack.
+	 * @return The number of elements the stack contains.
+	 */
+	@Override
+	public int size() {
+		long count = elementCount.sum();
+		if (count < 0) {
+			return 0;
+		}
+		return count > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+	}
+
+	/**
+	 * Offers a cell in a random elimination slot and waits a little for a popper to take it.
+	 * @param cell The cell to push.
+	 * @return true if a popper has taken the cell, false if it must be pushed again.
+	 */
+	private boolean eliminatePush(Cell<E> cell) {
+
+		int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length);
+		if (!SLOT.compareAndSet(eliminationSlots, slot, null, cell)) {
+			return false;
+		}
+		for (int i = 0; i < ELIMINATION_SPINS; i++) {
+			if (SLOT.getAcquire(eliminationSlots, slot) != cell) {
+				return true;
+			}
+			Thread.onSpinWait();
+		}
+		// If the withdrawal fails a popper has just taken the cell.
+		return !SLOT.compareAndSet(eliminationSlots, slot, cell, null);
+	}
+
+	/**
+	 * Takes the cell offered by a pusher in a random elimination slot, if there is one.
+	 * @return The taken cell, or null if there was none.
+	 */
+	@SuppressWarnings("unchecked")
+	private Cell<E> eliminatePop() {
+		int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length);
+		Cell<E> offered = (Cell<E>) SLOT.getAcquire(eliminationSlots, slot);
+		if (offered != null && SLOT.compareAndSet(eliminationSlots, slot, offered, null)) {
+			return offered;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,138 @@
+package mnds.stack;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * The segmented array implementation of the stack ADT.
+ * <p>
+ * The elements are kept in fixed size chunks referenced from a directory, so the
+ * element at index i is in the chunk i >>> shift at the position i & mask. Growing
+ * appends a new chunk and never copies the elements, only the directory of chunks
+ * is copied when it is full. When the stack is drained the chunks that aren't needed
+ * any more are released, keeping a single spare chunk to avoid allocating again when
+ * pushes and pops alternate at a chunk boundary.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the stack.
+ */
+public class SegmentedArrayStack<E> implements Stack<E> {
+
+	private E[][] chunks;
+	// The chunks from 0 to chunksCount - 1 are allocated.
+	private int chunksCount = 0;
+	private int elementsCount = 0;
+	private final int shift;
+	private final int mask;
+
+	private static final int DEFAULT_CHUNK_SIZE = 1024;
+	private static final int MAX_CHUNK_SIZE = 1 << 24;
+	private static final int MIN_DIRECTORY_LENGTH = 4;
+
+	/**
+	 * Creates a new SegmentedArrayStack with the default chunk size.
+	 */
+	public SegmentedArrayStack() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new SegmentedArrayStack with the indicated chunk size.
+	 * @param chunkSize The number of elements of each chunk.
+	 * @throws IllegalArgumentException If the chunk size isn't a power of two or it is greater than 2^24.
+	 */
+	@SuppressWarnings("unchecked")
+	public SegmentedArrayStack(int chunkSize) throws IllegalArgumentException {
+		if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE || Integer.bitCount(chunkSize) != 1) {
+			throw new IllegalArgumentException("Invalid chunk size");
+		}
+		shift = Integer.numberOfTrailingZeros(chunkSize);
+		mask = chunkSize - 1;
+		chunks = (E[][]) new Object[MIN_DIRECTORY_LENGTH][];
+	}
+
+	/**
+	 * Puts the element in the top of the stack.
+	 * @param element The element to push onto the stack.
+	 * @throws IllegalStateException If the stack already has Integer.MAX_VALUE elements.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public void push(E element) throws IllegalStateException {
+
+		int chunkIndex = elementsCount >>> shift;
+		if (chunkIndex == chunksCount) {
+			if (elementsCount == Integer.MAX_VALUE) {
+				throw new IllegalStateException("Full stack");
+			}
+			if (chunksCount == chunks.length) {
+				chunks = Arrays.copyOf(chunks, chunks.length * 2);
+			}
+			chunks[chunksCount] = (E[]) new Object[mask + 1];
+			chunksCount++;
+		}
+		chunks[chunkIndex][elementsCount & mask] = element;
+		elementsCount++;
+	}
+
+	@Override
+	public E pop() throws EmptyStackException {
+
+		if (elementsCount == 0) {
+			throw new EmptyStackException();
+		}
+		elementsCount--;
+		E[] chunk = chunks[elementsCount >>> shift];
+		E topElement = chunk[elementsCount & mask];
+		chunk[elementsCount & mask] = null;
+		if ((elementsCount & mask) == 0) {
+			releaseUnusedChunks();
+		}
+		return topElement;
+	}
+
+	@Override
+	public E top() throws EmptyStackException {
+		if (elementsCount == 0) {
+			throw new EmptyStackException();
+		}
+		int index = elementsCount - 1;
+		return chunks[index >>> shift][index & mask];
+	}
+
+	/**
+	 * Empties the stack, releasing all the chunks but one.
+	 */
+	@Override
+	public void clear() {
+		if (chunksCount > 0) {
+			Arrays.fill(chunks[0], null);
+		}
+		elementsCount = 0;
+		releaseUnusedChunks();
+	}
+
+	@Override
+	public int size() {
+		return elementsCount;
+	}
+
+	/**
+	 * Releases the chunks past the used ones but a spare one, and halves the directory
+	 * while it is mostly empty.
+	 */
+	private void releaseUnusedChunks() {
+		int usedChunks = (elementsCount + mask) >>> shift;
+		while (chunksCount > usedChunks + 1) {
+			chunksCount--;
+			chunks[chunksCount] = null;
+		}
+		int directoryLength = chunks.length;
+		while (directoryLength > MIN_DIRECTORY_LENGTH && chunksCount < directoryLength / 4) {
+			directoryLength /= 2;
+		}
+		if (directoryLength < chunks.length) {
+			chunks = Arrays.copyOf(chunks, directoryLength);
+		}
+	}
+}
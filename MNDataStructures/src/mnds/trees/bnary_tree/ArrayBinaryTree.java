@@ -0,0 +1,859 @@
+package mnds.trees.bnary_tree;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import mnds.stack.ArrayStack;
+
+/**
+ * The array implementation of the binary tree ADT, with the nodes in the implicit heap
+ * layout.
+ * <p>
+ * The contents are kept in a single array where the root is at index 0 and the children
+ * of the node at index i are at 2i + 1 and 2i + 2, so the links between nodes aren't
+ * stored and the tree takes a reference per position. The nodes of a level are
+ * contiguous, so the level order is the order of the array, and the traversals go from
+ * a node to the next one computing indexes, with constant extra memory. The array has
+ * a position for every node of a complete tree of the same height, so this
+ * implementation suits trees that are mostly complete: a degenerate tree of height h
+ * takes 2^(h+1) - 1 positions, and the height is limited to 29. Adding a child or a
+ * branch that would be deeper throws IllegalStateException or IllegalArgumentException
+ * before the tree is changed.
+ * <p>
+ * The nodes returned by the tree are lightweight views of a position, created when
+ * they are asked for, and not of the node that is there. Two views of the same position
+ * are equal. A view is only valid while its position holds a node: once the node is
+ * cut from the tree or the tree is cleared, using the view throws IllegalStateException.
+ * The positions don't record which node they held, so if a node is added again at the
+ * position the old views refer to the new node.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the tree.
+ */
+public class ArrayBinaryTree<E> implements BinaryTree<E> {
+
+	// An empty position holds null, and a node whose content is null holds NULL_CONTENT.
+	private Object[] slots;
+	private int nodesCount = 0;
+
+	private static final Object NULL_CONTENT = new Object();
+	private static final int DEFAULT_CAPACITY = 15;
+	// The capacity of a complete tree of height 29, the biggest that fits an array.
+	private static final int MAX_HEIGHT = 29;
+	private static final int MAX_CAPACITY = (1 << (MAX_HEIGHT + 1)) - 1;
+
+	/**
+	 * Creates a new ArrayBinaryTree with room for a complete tree of height 3.
+	 */
+	public ArrayBinaryTree() {
+		slots = new Object[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Creates a new ArrayBinaryTree with room for the indicated number of positions,
+	 * rounded up to the size of a complete tree.
+	 * @param initialCapacity The number of positions.
+	 * @throws IllegalArgumentException If the capacity is negative or greater than 2^30 - 1.
+	 */
+	public ArrayBinaryTree(int initialCapacity) throws IllegalArgumentException {
+		if (initialCapacity < 0 || initialCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Invalid capacity");
+		}
+		int capacity = 1;
+		while (capacity < initialCapacity) {
+			capacity = capacity * 2 + 1;
+		}
+		slots = new Object[capacity];
+	}
+
+	@Override
+	public Node root() {
+		return exists(0) ? new Node(0) : null;
+	}
+
+	@Override
+	public void addRoot(E rootContent) throws UnsupportedOperationException {
+		if (exists(0)) {
+			throw new UnsupportedOperationException();
+		}
+		put(0, rootContent);
+	}
+
+	@Override
+	public int size() {
+		return nodesCount;
+	}
+
+	@Override
+	public void clear() {
+		slots = new Object[DEFAULT_CAPACITY];
+		nodesCount = 0;
+	}
+
+	@Override
+	public void preorderVisit(NodeVisitor<E> visitor) {
+		for (int index = first(0); index >= 0; index = preorderSuccessor(index)) {
+			visitor.visit(contentAt(index));
+		}
+	}
+
+	@Override
+	public void inorderVisit(NodeVisitor<E> visitor) {
+		for (int index = firstInorder(0); index >= 0; index = inorderSuccessor(index)) {
+			visitor.visit(contentAt(index));
+		}
+	}
+
+	@Override
+	public void postorderVisit(NodeVisitor<E> visitor) {
+		for (int index = firstPostorder(0); index >= 0; index = postorderSuccessor(index)) {
+			visitor.visit(contentAt(index));
+		}
+	}
+
+	@Override
+	public void levelOrderVisit(NodeVisitor<E> visitor) {
+		for (int index = 0; index < slots.length; index++) {
+			if (slots[index] != null) {
+				visitor.visit(contentAt(index));
+			}
+		}
+	}
+
+	@Override
+	public boolean preorderWalk(ControlledNodeVisitor<E> visitor) {
+		int index = first(0);
+		while (index >= 0) {
+			VisitResult result = visitor.visit(contentAt(index));
+			if (result == VisitResult.STOP) {
+				return true;
+			}
+			index = (result == VisitResult.SKIP_SUBTREE) ? preorderSuccessorAfterSubtree(index)
+					: preorderSuccessor(index);
+		}
+		return false;
+	}
+
+	@Override
+	public boolean inorderWalk(ControlledNodeVisitor<E> visitor) {
+		int index = firstInorder(0);
+		while (index >= 0) {
+			VisitResult result = visitor.visit(contentAt(index));
+			if (result == VisitResult.STOP) {
+				return true;
+			}
+			index = (result == VisitResult.SKIP_SUBTREE) ? inorderSuccessorAfterSubtree(index)
+					: inorderSuccessor(index);
+		}
+		return false;
+	}
+
+	@Override
+	public boolean postorderWalk(ControlledNodeVisitor<E> visitor) {
+		for (int index = firstPostorder(0); index >= 0; index = postorderSuccessor(index)) {
+			if (visitor.visit(contentAt(index)) == VisitResult.STOP) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The array is scanned in order, and the skipped subtrees are tracked with a bit
+	 * for each position, which is only allocated when a subtree is skipped.
+	 */
+	@Override
+	public boolean levelOrderWalk(ControlledNodeVisitor<E> visitor) {
+		// The bit of a position is set if its descendants must not be visited.
+		long[] skippedSubtrees = null;
+		for (int index = 0; index < slots.length; index++) {
+			if (slots[index] == null) {
+				continue;
+			}
+			if (skippedSubtrees != null && index > 0 && isSet(skippedSubtrees, parent(index))) {
+				set(skippedSubtrees, index);
+				continue;
+			}
+			VisitResult result = visitor.visit(contentAt(index));
+			if (result == VisitResult.STOP) {
+				return true;
+			}
+			if (result == VisitResult.SKIP_SUBTREE) {
+				if (skippedSubtrees == null) {
+					skippedSubtrees = new long[(slots.length + 63) >>> 6];
+				}
+				set(skippedSubtrees, index);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tells if the bit of a position is set.
+	 * @param bits The bits of the positions.
+	 * @param index The position.
+	 * @return true if the bit is set.
+	 */
+	private static boolean isSet(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Sets the bit of a position.
+	 * @param bits The bits of the positions.
+	 * @param index The position.
+	 */
+	private static void set(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+
+	@Override
+	public Iterator<E> preorderIterator() {
+		return new ArrayBinaryTreeIterator(Order.PREORDER);
+	}
+
+	@Override
+	public Iterator<E> inorderIterator() {
+		return new ArrayBinaryTreeIterator(Order.INORDER);
+	}
+
+	@Override
+	public Iterator<E> postorderIterator() {
+		return new ArrayBinaryTreeIterator(Order.POSTORDER);
+	}
+
+	/**
+	 * Gets the index of the parent of a position other than the root.
+	 * @param index The position.
+	 * @return The index of the parent.
+	 */
+	private static int parent(int index) {
+		return (index - 1) >>> 1;
+	}
+
+	/**
+	 * Gets the index of the left child of a position.
+	 * @param index The position.
+	 * @return The index of the left child, which can be past the array.
+	 */
+	private static int leftChild(int index) {
+		return 2 * index + 1;
+	}
+
+	/**
+	 * Gets the index of the right child of a position.
+	 * @param index The position.
+	 * @return The index of the right child, which can be past the array.
+	 */
+	private static int rightChild(int index) {
+		return 2 * index + 2;
+	}
+
+	/**
+	 * Tells if a position is the left child of its parent.
+	 * @param index The position, other than the root.
+	 * @return true if it is a left child.
+	 */
+	private static boolean isLeftChild(int index) {
+		return (index & 1) == 1;
+	}
+
+	/**
+	 * Gets the depth of a position, the number of levels above it.
+	 * @param index The position.
+	 * @return The depth of the position, 0 for the root.
+	 */
+	private static int depth(int index) {
+		return 31 - Integer.numberOfLeadingZeros(index + 1);
+	}
+
+	/**
+	 * Tells if there is a node at a position.
+	 * @param index The position, it can be past the array.
+	 * @return true if there is a node.
+	 */
+	private boolean exists(int index) {
+		return index < slots.length && slots[index] != null;
+	}
+
+	/**
+	 * Gets the position itself if there is a node at it.
+	 * @param index The position.
+	 * @return The position, or -1 if there is no node.
+	 */
+	private int first(int index) {
+		return exists(index) ? index : -1;
+	}
+
+	/**
+	 * Gets the content of the node at a position.
+	 * @param index The position of an existing node.
+	 * @return The content of the node.
+	 */
+	@SuppressWarnings("unchecked")
+	private E contentAt(int index) {
+		Object slot = slots[index];
+		return (slot == NULL_CONTENT) ? null : (E) slot;
+	}
+
+	/**
+	 * Adds a node at an empty position, growing the array if needed.
+	 * @param index The position.
+	 * @param content The content of the node.
+	 */
+	private void put(int index, E content) {
+		ensureCapacity(index);
+		slots[index] = (content == null) ? NULL_CONTENT : content;
+		nodesCount++;
+	}
+
+	/**
+	 * Grows the array, to the size of a complete tree, until it has the indicated position.
+	 * @param index The position.
+	 * @throws IllegalStateException If the position is deeper than the maximum height.
+	 */
+	private void ensureCapacity(int index) throws IllegalStateException {
+		if (index < slots.length) {
+			return;
+		}
+		if (index >= MAX_CAPACITY) {
+			throw new IllegalStateException("Tree too deep");
+		}
+		int capacity = slots.length;
+		while (capacity <= index) {
+			capacity = capacity * 2 + 1;
+		}
+		slots = Arrays.copyOf(slots, capacity);
+	}
+
+	/*
+	 * The traversals are the ones of the linked tree, going from a node to the next one
+	 * through its children and its parent, but the links are computed from the indexes.
+	 * A missing node is -1.
+	 */
+
+	/**
+	 * Gets the node that follows the indicated one in pre-order.
+	 * @param index The current node.
+	 * @return The next node, or -1 if the node is the last one.
+	 */
+	private int preorderSuccessor(int index) {
+		if (exists(leftChild(index))) {
+			return leftChild(index);
+		}
+		if (exists(rightChild(index))) {
+			return rightChild(index);
+		}
+		return preorderSuccessorAfterSubtree(index);
+	}
+
+	/**
+	 * Gets the node that follows the subtree of the indicated one in pre-order.
+	 * @param index The root of the subtree.
+	 * @return The next node after the subtree, or -1 if there is none.
+	 */
+	private int preorderSuccessorAfterSubtree(int index) {
+		// Go up until a node is reached from its left child and it has a right child.
+		while (index > 0) {
+			if (isLeftChild(index) && exists(index + 1)) {
+				return index + 1;
+			}
+			index = parent(index);
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the first node of a subtree in in-order, its leftmost node.
+	 * @param index The root of the subtree, there can be no node at it.
+	 * @return The first node, or -1 if the subtree is empty.
+	 */
+	private int firstInorder(int index) {
+		if (!exists(index)) {
+			return -1;
+		}
+		while (exists(leftChild(index))) {
+			index = leftChild(index);
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the node that follows the indicated one in in-order.
+	 * @param index The current node.
+	 * @return The next node, or -1 if the node is the last one.
+	 */
+	private int inorderSuccessor(int index) {
+		if (exists(rightChild(index))) {
+			return firstInorder(rightChild(index));
+		}
+		return inorderSuccessorAfterSubtree(index);
+	}
+
+	/**
+	 * Gets the node that follows the indicated one in in-order without going into its
+	 * right subtree.
+	 * @param index The current node.
+	 * @return The next node after the right subtree, or -1 if there is none.
+	 */
+	private int inorderSuccessorAfterSubtree(int index) {
+		// Go up until a node is reached from its left child.
+		while (index > 0 && !isLeftChild(index)) {
+			index = parent(index);
+		}
+		return (index > 0) ? parent(index) : -1;
+	}
+
+	/**
+	 * Gets the first node of a subtree in post-order, the deepest one of its left side.
+	 * @param index The root of the subtree, there can be no node at it.
+	 * @return The first node, or -1 if the subtree is empty.
+	 */
+	private int firstPostorder(int index) {
+		if (!exists(index)) {
+			return -1;
+		}
+		while (true) {
+			if (exists(leftChild(index))) {
+				index = leftChild(index);
+			} else if (exists(rightChild(index))) {
+				index = rightChild(index);
+			} else {
+				return index;
+			}
+		}
+	}
+
+	/**
+	 * Gets the node that follows the indicated one in post-order.
+	 * @param index The current node.
+	 * @return The next node, or -1 if the node is the last one.
+	 */
+	private int postorderSuccessor(int index) {
+		if (index == 0) {
+			return -1;
+		}
+		if (isLeftChild(index) && exists(index + 1)) {
+			return firstPostorder(index + 1);
+		}
+		return parent(index);
+	}
+
+	/**
+	 * Copies the subtree at a position of this tree to a position of another one, or
+	 * moves it if the nodes are removed from this tree. Both positions are walked in
+	 * pre-order at the same time, so the copy keeps the shape of the subtree. The target
+	 * grows as needed, and the caller must have checked that the copy isn't too deep.
+	 * @param subtreeRoot The root of the subtree, there must be a node at it.
+	 * @param target The tree where the subtree is copied, it can't be this tree.
+	 * @param targetRoot The position of the copy, the subtree there must be empty.
+	 * @param remove true to remove the nodes from this tree.
+	 */
+	private void copySubtree(int subtreeRoot, ArrayBinaryTree<E> target, int targetRoot,
+			boolean remove) {
+
+		int index = subtreeRoot;
+		int targetIndex = targetRoot;
+		while (true) {
+			target.ensureCapacity(targetIndex);
+			target.slots[targetIndex] = slots[index];
+			target.nodesCount++;
+			if (remove) {
+				// The children of the node are checked before it is left, not the node itself.
+				slots[index] = null;
+				nodesCount--;
+			}
+
+			if (exists(leftChild(index))) {
+				index = leftChild(index);
+				targetIndex = leftChild(targetIndex);
+			} else if (exists(rightChild(index))) {
+				index = rightChild(index);
+				targetIndex = rightChild(targetIndex);
+			} else {
+				// Go up until a node is reached from its left child and it has a right child.
+				while (true) {
+					if (index == subtreeRoot) {
+						return;
+					}
+					if (isLeftChild(index) && exists(index + 1)) {
+						index++;
+						targetIndex++;
+						break;
+					}
+					index = parent(index);
+					targetIndex = parent(targetIndex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies a branch of any kind of tree to a position of this tree. The branch is
+	 * walked with an explicit stack instead of recursion, and the caller must have checked
+	 * that the copy isn't too deep.
+	 * @param branchRoot The root of the branch.
+	 * @param index The position of the copy, the subtree there must be empty.
+	 */
+	private void copyBranch(BinaryTreeNode<E> branchRoot, int index) {
+
+		ArrayStack<BinaryTreeNode<E>> pendingBranchNodes = new ArrayStack<BinaryTreeNode<E>>();
+		ArrayStack<Integer> pendingIndexes = new ArrayStack<Integer>();
+		pendingBranchNodes.push(branchRoot);
+		pendingIndexes.push(index);
+
+		while (pendingBranchNodes.size() > 0) {
+			BinaryTreeNode<E> original = pendingBranchNodes.pop();
+			int copyIndex = pendingIndexes.pop();
+			put(copyIndex, original.content());
+			if (original.rightChild() != null) {
+				pendingBranchNodes.push(original.rightChild());
+				pendingIndexes.push(rightChild(copyIndex));
+			}
+			if (original.leftChild() != null) {
+				pendingBranchNodes.push(original.leftChild());
+				pendingIndexes.push(leftChild(copyIndex));
+			}
+		}
+	}
+
+	/**
+	 * Gets the height of the tree, the depth of its deepest node. The deeper levels are
+	 * at the end of the array, so the array is scanned backwards.
+	 * @return The height of the tree, or -1 if it is empty.
+	 */
+	private int height() {
+		for (int index = slots.length - 1; index >= 0; index--) {
+			if (slots[index] != null) {
+				return depth(index);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the height of a branch of any kind of tree. The branch is walked with an
+	 * explicit stack instead of recursion, so it can be of any height.
+	 * @param branchRoot The root of the branch.
+	 * @return The height of the branch, 0 if the root has no children.
+	 */
+	private static <E> int branchHeight(BinaryTreeNode<E> branchRoot) {
+
+		ArrayStack<BinaryTreeNode<E>> pendingNodes = new ArrayStack<BinaryTreeNode<E>>();
+		ArrayStack<Integer> pendingDepths = new ArrayStack<Integer>();
+		pendingNodes.push(branchRoot);
+		pendingDepths.push(0);
+
+		int height = 0;
+		while (pendingNodes.size() > 0) {
+			BinaryTreeNode<E> node = pendingNodes.pop();
+			int nodeDepth = pendingDepths.pop();
+			height = Math.max(height, nodeDepth);
+			if (node.rightChild() != null) {
+				pendingNodes.push(node.rightChild());
+				pendingDepths.push(nodeDepth + 1);
+			}
+			if (node.leftChild() != null) {
+				pendingNodes.push(node.leftChild());
+				pendingDepths.push(nodeDepth + 1);
+			}
+		}
+		return height;
+	}
+
+	/**
+	 * Adds a copy of a tree at a position of this tree. The height of the branch is
+	 * checked and the array is grown before any node is copied, so a branch that doesn't
+	 * fit leaves the tree unchanged.
+	 * @param branch The tree to copy.
+	 * @param index The position of the copy, the subtree there must be empty.
+	 * @throws IllegalArgumentException If the copy would be deeper than the maximum height.
+	 */
+	private void addBranch(BinaryTree<E> branch, int index) throws IllegalArgumentException {
+		if (branch.root() == null) {
+			return;
+		}
+		int branchHeight = (branch instanceof ArrayBinaryTree)
+				? ((ArrayBinaryTree<E>) branch).height() : branchHeight(branch.root());
+		int copyHeight = depth(index) + branchHeight;
+		if (copyHeight > MAX_HEIGHT) {
+			throw new IllegalArgumentException("Branch too deep");
+		}
+		// The last position of the deepest level of the copy.
+		ensureCapacity((1 << (copyHeight + 1)) - 2);
+
+		if (branch instanceof ArrayBinaryTree) {
+			ArrayBinaryTree<E> arrayBranch = (ArrayBinaryTree<E>) branch;
+			if (arrayBranch == this) {
+				// The copy would be walked while it is made, so the tree is copied first.
+				arrayBranch = new ArrayBinaryTree<E>((1 << (branchHeight + 1)) - 1);
+				copySubtree(0, arrayBranch, 0, false);
+			}
+			arrayBranch.copySubtree(0, this, index, false);
+		} else {
+			copyBranch(branch.root(), index);
+		}
+	}
+
+	/**
+	 * Cuts the subtree at a position into a new tree.
+	 * @param index The position of the root of the subtree.
+	 * @return The cut branch, empty if there is no node at the position.
+	 */
+	private ArrayBinaryTree<E> cutBranch(int index) {
+		ArrayBinaryTree<E> branch = new ArrayBinaryTree<E>();
+		if (exists(index)) {
+			copySubtree(index, branch, 0, true);
+		}
+		return branch;
+	}
+
+	/**
+	 * The orders in which the nodes can be iterated.
+	 */
+	private enum Order {
+		PREORDER, INORDER, POSTORDER
+	}
+
+	/**
+	 * An iterator over the contents of the nodes that walks the tree one node at a time,
+	 * so the caller can stop at any moment.
+	 */
+	private class ArrayBinaryTreeIterator implements Iterator<E> {
+
+		private final Order order;
+		private int next;
+
+		/**
+		 * Creates an iterator placed before the first node in the indicated order.
+		 * @param order The order of the iteration.
+		 */
+		private ArrayBinaryTreeIterator(Order order) {
+			this.order = order;
+			switch (order) {
+			case PREORDER:
+				next = first(0);
+				break;
+			case INORDER:
+				next = firstInorder(0);
+				break;
+			default:
+				next = firstPostorder(0);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next >= 0;
+		}
+
+		@Override
+		public E next() throws NoSuchElementException {
+			if (next < 0) {
+				throw new NoSuchElementException("No next element");
+			}
+			int current = next;
+			switch (order) {
+			case PREORDER:
+				next = preorderSuccessor(current);
+				break;
+			case INORDER:
+				next = inorderSuccessor(current);
+				break;
+			default:
+				next = postorderSuccessor(current);
+			}
+			return contentAt(current);
+		}
+	}
+
+	/**
+	 * A view of a position of the tree. The views are created when they are asked for,
+	 * and two views of the same position of the same tree are equal. A view whose
+	 * position has no node anymore throws IllegalStateException, and a view whose
+	 * position has been filled again refers to the new node.
+	 */
+	public class Node implements BinaryTreeNode<E> {
+
+		private final int index;
+
+		private Node(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Checks that the position of the view holds a node. It can't tell whether it is
+		 * the node the view was created for or one added later at the same position.
+		 * @throws IllegalStateException If the position is empty, because its node has
+		 * been cut or the tree cleared.
+		 */
+		private void checkExists() throws IllegalStateException {
+			if (!exists(index)) {
+				throw new IllegalStateException("Empty position");
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 */
+		@Override
+		public E content() throws IllegalStateException {
+			checkExists();
+			return contentAt(index);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 */
+		@Override
+		public void setContent(E content) throws IllegalStateException {
+			checkExists();
+			slots[index] = (content == null) ? NULL_CONTENT : content;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 */
+		@Override
+		public Node parent() throws IllegalStateException {
+			checkExists();
+			return (index > 0) ? new Node(ArrayBinaryTree.parent(index)) : null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 */
+		@Override
+		public Node rightChild() throws IllegalStateException {
+			checkExists();
+			int childIndex = ArrayBinaryTree.rightChild(index);
+			return exists(childIndex) ? new Node(childIndex) : null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 */
+		@Override
+		public Node leftChild() throws IllegalStateException {
+			checkExists();
+			int childIndex = ArrayBinaryTree.leftChild(index);
+			return exists(childIndex) ? new Node(childIndex) : null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree, or the
+		 * child would be deeper than the maximum height.
+		 */
+		@Override
+		public void addRightChild(E element)
+				throws UnsupportedOperationException, IllegalStateException {
+			checkExists();
+			int childIndex = ArrayBinaryTree.rightChild(index);
+			if (exists(childIndex)) {
+				throw new UnsupportedOperationException();
+			}
+			put(childIndex, element);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree, or the
+		 * child would be deeper than the maximum height.
+		 */
+		@Override
+		public void addLeftChild(E element)
+				throws UnsupportedOperationException, IllegalStateException {
+			checkExists();
+			int childIndex = ArrayBinaryTree.leftChild(index);
+			if (exists(childIndex)) {
+				throw new UnsupportedOperationException();
+			}
+			put(childIndex, element);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 * @throws IllegalArgumentException If the branch would be deeper than the maximum
+		 * height, the tree isn't changed.
+		 */
+		@Override
+		public void addRightBranch(BinaryTree<E> branch) throws UnsupportedOperationException,
+				IllegalStateException, IllegalArgumentException {
+			checkExists();
+			int childIndex = ArrayBinaryTree.rightChild(index);
+			if (exists(childIndex)) {
+				throw new UnsupportedOperationException();
+			}
+			addBranch(branch, childIndex);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 * @throws IllegalArgumentException If the branch would be deeper than the maximum
+		 * height, the tree isn't changed.
+		 */
+		@Override
+		public void addLeftBranch(BinaryTree<E> branch) throws UnsupportedOperationException,
+				IllegalStateException, IllegalArgumentException {
+			checkExists();
+			int childIndex = ArrayBinaryTree.leftChild(index);
+			if (exists(childIndex)) {
+				throw new UnsupportedOperationException();
+			}
+			addBranch(branch, childIndex);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 */
+		@Override
+		public ArrayBinaryTree<E> cutRightBranch() throws IllegalStateException {
+			checkExists();
+			return cutBranch(ArrayBinaryTree.rightChild(index));
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * @throws IllegalStateException If the node has been removed from the tree.
+		 */
+		@Override
+		public ArrayBinaryTree<E> cutLeftBranch() throws IllegalStateException {
+			checkExists();
+			return cutBranch(ArrayBinaryTree.leftChild(index));
+		}
+
+		/**
+		 * Gets the tree of the node.
+		 * @return The tree of the node.
+		 */
+		private ArrayBinaryTree<E> tree() {
+			return ArrayBinaryTree.this;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof ArrayBinaryTree.Node)) {
+				return false;
+			}
+			ArrayBinaryTree<?>.Node otherNode = (ArrayBinaryTree<?>.Node) other;
+			return index == otherNode.index && tree() == otherNode.tree();
+		}
+
+		@Override
+		public int hashCode() {
+			return index;
+		}
+	}
+}
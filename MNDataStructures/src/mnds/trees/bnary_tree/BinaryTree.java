@@ -1,5 +1,7 @@
 package mnds.trees.bnary_tree;
 
+import java.util.Iterator;
+
 /**
  * The definition of the operations of the Tree ADT.
  * @author Mehdi Nasef.
@@ -50,4 +52,60 @@ public interface BinaryTree<E> {
 	 * @param visitor The object with the visit method.
 	 */
 	public void postorderVisit(NodeVisitor<E> visitor);
+	
+	/**
+	 * Goes over all the nodes by levels, from the root down and from left to right.
+	 * @param visitor The object with the visit method.
+	 */
+	public void levelOrderVisit(NodeVisitor<E> visitor);
+	
+	/**
+	 * Goes over the nodes in pre-order while the visitor lets it. Skipping a subtree
+	 * skips all the descendants of the node.
+	 * @param visitor The object with the visit method.
+	 * @return true if the visitor stopped the walk.
+	 */
+	public boolean preorderWalk(ControlledNodeVisitor<E> visitor);
+	
+	/**
+	 * Goes over the nodes in in-order while the visitor lets it. Skipping a subtree
+	 * skips the right subtree of the node, the left one has already been visited.
+	 * @param visitor The object with the visit method.
+	 * @return true if the visitor stopped the walk.
+	 */
+	public boolean inorderWalk(ControlledNodeVisitor<E> visitor);
+	
+	/**
+	 * Goes over the nodes in post-order while the visitor lets it. The subtree of a node
+	 * has already been visited when the node is, so skipping it is the same as continuing.
+	 * @param visitor The object with the visit method.
+	 * @return true if the visitor stopped the walk.
+	 */
+	public boolean postorderWalk(ControlledNodeVisitor<E> visitor);
+	
+	/**
+	 * Goes over the nodes by levels while the visitor lets it. Skipping a subtree
+	 * skips all the descendants of the node.
+	 * @param visitor The object with the visit method.
+	 * @return true if the visitor stopped the walk.
+	 */
+	public boolean levelOrderWalk(ControlledNodeVisitor<E> visitor);
+	
+	/**
+	 * Gets an iterator over the contents of the nodes in pre-order.
+	 * @return The pre-order iterator.
+	 */
+	public Iterator<E> preorderIterator();
+	
+	/**
+	 * Gets an iterator over the contents of the nodes in in-order.
+	 * @return The in-order iterator.
+	 */
+	public Iterator<E> inorderIterator();
+	
+	/**
+	 * Gets an iterator over the contents of the nodes in post-order.
+	 * @return The post-order iterator.
+	 */
+	public Iterator<E> postorderIterator();
 }
@@ -0,0 +1,18 @@
+package mnds.trees.bnary_tree;
+
+/**
+ * Definition of a method that visits the nodes of a tree and decides how the walk
+ * goes on after each node, so it can skip subtrees or stop before visiting them all.
+ * @author Mehdi Nasef.
+ *
+ * @param <E> The type of the elements of the tree.
+ */
+public interface ControlledNodeVisitor<E> {
+
+	/**
+	 * Visits the content of the node.
+	 * @param nodeContent The content of the node to visit.
+	 * @return How the walk goes on.
+	 */
+	public VisitResult visit(E nodeContent);
+}
@@ -1,18 +1,43 @@
 package mnds.trees.bnary_tree;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import mnds.queue.ArrayQueue;
+import mnds.stack.ArrayStack;
+
 /**
  * The parent-children linked implementation of the binary tree ADT
+ * <p>
+ * Every node keeps the number of nodes of its subtree, so the size of the tree is the
+ * one of the root. The sizes are updated lazily: adding, cutting or grafting nodes only
+ * marks the ancestors whose size is stale, stopping at the first one already marked, so
+ * those operations take amortized constant time and building a tree node by node stays
+ * linear even when it is very deep. The stale sizes are recomputed, visiting only the
+ * marked nodes, when size(), the spliterator or the parallel operations need them.
+ * Besides copying branches, whole PChBinaryTrees can be grafted under a node, which
+ * moves their nodes instead of copying them.
  * @author Mehdi Nasef
  *
  * @param <E> The type of the elements of the tree.
  */
 public class PChBinaryTree<E> implements BinaryTree<E> {
 	
-	private int nodesCount = 0;
 	private Node root = null;
+	
+	// The smallest subtree that the parallel operations split into tasks.
+	private static final int MIN_SEQUENTIAL_SUBTREE_SIZE = 1024;
 
 	@Override
-	public BinaryTreeNode<E> root() {
+	public Node root() {
 		return root;
 	}
 
@@ -27,70 +52,713 @@ public class PChBinaryTree<E> implements BinaryTree<E> {
 
 	@Override
 	public int size() {
-		return nodesCount;
+		if (root == null) {
+			return 0;
+		}
+		refreshSubtreeSizes(root);
+		return root.subtreeSize;
 	}
 
 	@Override
 	public void clear() {
 		root = null;
-		nodesCount = 0;
 	}
 
 	@Override
 	public void preorderVisit(NodeVisitor<E> visitor) {
-		preorderVisitRec(visitor, this.root);
+		for (Node node = root; node != null; node = preorderSuccessor(node)) {
+			visitor.visit(node.content);
+		}
 	}
-	
-	/**
-	 * Goes over all the nodes recursively in pre-order.
-	 * @param visitor The visitor of the nodes with the visitor method.
-	 * @param node The node to be visited.
-	 */
-	private void preorderVisitRec(NodeVisitor<E> visitor, Node node) {
-		
-		if (node == null) {
+
+	@Override
+	public void inorderVisit(NodeVisitor<E> visitor) {
+		for (Node node = firstInorder(root); node != null; node = inorderSuccessor(node)) {
+			visitor.visit(node.content);
+		}
+	}
+
+	@Override
+	public void postorderVisit(NodeVisitor<E> visitor) {
+		for (Node node = firstPostorder(root); node != null; node = postorderSuccessor(node)) {
+			visitor.visit(node.content);
+		}
+	}
+
+	@Override
+	public void levelOrderVisit(NodeVisitor<E> visitor) {
+		if (root == null) {
 			return;
 		}
-		visitor.visit(node.content);
-		preorderVisitRec(visitor, node.leftChild);
-		preorderVisitRec(visitor, node.rightChild);
+		ArrayQueue<Node> pendingNodes = new ArrayQueue<Node>();
+		pendingNodes.enqueue(root);
+		while (pendingNodes.size() > 0) {
+			Node node = pendingNodes.dequeue();
+			visitor.visit(node.content);
+			if (node.leftChild != null) {
+				pendingNodes.enqueue(node.leftChild);
+			}
+			if (node.rightChild != null) {
+				pendingNodes.enqueue(node.rightChild);
+			}
+		}
 	}
 
 	@Override
-	public void inorderVisit(NodeVisitor<E> visitor) {
-		inorderVisitRec(visitor, this.root);
+	public boolean preorderWalk(ControlledNodeVisitor<E> visitor) {
+		Node node = root;
+		while (node != null) {
+			VisitResult result = visitor.visit(node.content);
+			if (result == VisitResult.STOP) {
+				return true;
+			}
+			node = (result == VisitResult.SKIP_SUBTREE) ? preorderSuccessorAfterSubtree(node)
+					: preorderSuccessor(node);
+		}
+		return false;
 	}
-	
+
+	@Override
+	public boolean inorderWalk(ControlledNodeVisitor<E> visitor) {
+		Node node = firstInorder(root);
+		while (node != null) {
+			VisitResult result = visitor.visit(node.content);
+			if (result == VisitResult.STOP) {
+				return true;
+			}
+			node = (result == VisitResult.SKIP_SUBTREE) ? inorderSuccessorAfterSubtree(node)
+					: inorderSuccessor(node);
+		}
+		return false;
+	}
+
+	@Override
+	public boolean postorderWalk(ControlledNodeVisitor<E> visitor) {
+		for (Node node = firstPostorder(root); node != null; node = postorderSuccessor(node)) {
+			if (visitor.visit(node.content) == VisitResult.STOP) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public boolean levelOrderWalk(ControlledNodeVisitor<E> visitor) {
+		if (root == null) {
+			return false;
+		}
+		ArrayQueue<Node> pendingNodes = new ArrayQueue<Node>();
+		pendingNodes.enqueue(root);
+		while (pendingNodes.size() > 0) {
+			Node node = pendingNodes.dequeue();
+			VisitResult result = visitor.visit(node.content);
+			if (result == VisitResult.STOP) {
+				return true;
+			}
+			if (result == VisitResult.CONTINUE) {
+				if (node.leftChild != null) {
+					pendingNodes.enqueue(node.leftChild);
+				}
+				if (node.rightChild != null) {
+					pendingNodes.enqueue(node.rightChild);
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Iterator<E> preorderIterator() {
+		return new PChBinaryTreeIterator(Order.PREORDER);
+	}
+
+	@Override
+	public Iterator<E> inorderIterator() {
+		return new PChBinaryTreeIterator(Order.INORDER);
+	}
+
+	@Override
+	public Iterator<E> postorderIterator() {
+		return new PChBinaryTreeIterator(Order.POSTORDER);
+	}
+
+	/*
+	 * The traversals don't use recursion nor a stack: they go from a node to the next
+	 * one following the children and parent links, so they take constant extra memory
+	 * and work for trees of any height.
+	 */
+
 	/**
-	 * Goes over all the nodes recursively in in-order.
-	 * @param visitor The visitor of the nodes with the visit method.
-	 * @param node The node to be visited.
+	 * Gets the node that follows the indicated one in pre-order.
+	 * @param node The current node.
+	 * @return The next node, or null if the node is the last one.
 	 */
-	private void inorderVisitRec(NodeVisitor<E> visitor, Node node) {
+	private Node preorderSuccessor(Node node) {
+		return preorderSuccessor(node, null);
+	}
+
+	/**
+	 * Gets the node that follows the indicated one in pre-order without leaving a subtree.
+	 * @param node The current node.
+	 * @param subtreeRoot The root of the subtree, or null for the whole tree.
+	 * @return The next node, or null if the node is the last one of the subtree.
+	 */
+	private Node preorderSuccessor(Node node, Node subtreeRoot) {
+		if (node.leftChild != null) {
+			return node.leftChild;
+		}
+		if (node.rightChild != null) {
+			return node.rightChild;
+		}
+		return preorderSuccessorAfterSubtree(node, subtreeRoot);
+	}
+
+	/**
+	 * Gets the node that follows the subtree of the indicated one in pre-order.
+	 * @param node The root of the subtree.
+	 * @return The next node after the subtree, or null if there is none.
+	 */
+	private Node preorderSuccessorAfterSubtree(Node node) {
+		return preorderSuccessorAfterSubtree(node, null);
+	}
+
+	/**
+	 * Gets the node that follows the subtree of the indicated one in pre-order without
+	 * leaving an enclosing subtree.
+	 * @param node The root of the subtree.
+	 * @param enclosingRoot The root of the enclosing subtree, or null for the whole tree.
+	 * @return The next node after the subtree, or null if there is none.
+	 */
+	private Node preorderSuccessorAfterSubtree(Node node, Node enclosingRoot) {
+		// Go up until a node is reached from its left child and it has a right child.
+		while (node != enclosingRoot && node.parent != null) {
+			Node parent = node.parent;
+			if (parent.leftChild == node && parent.rightChild != null) {
+				return parent.rightChild;
+			}
+			node = parent;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the first node of a subtree in in-order, its leftmost node.
+	 * @param node The root of the subtree, it can be null.
+	 * @return The first node, or null if the subtree is empty.
+	 */
+	private Node firstInorder(Node node) {
 		if (node == null) {
-			return;
+			return null;
+		}
+		while (node.leftChild != null) {
+			node = node.leftChild;
 		}
-		inorderVisitRec(visitor, node.leftChild);
-		visitor.visit(node.content);
-		inorderVisitRec(visitor, node.rightChild);
+		return node;
 	}
 
-	@Override
-	public void postorderVisit(NodeVisitor<E> visitor) {
-		postorderVisit(visitor, this.root);
+	/**
+	 * Gets the node that follows the indicated one in in-order.
+	 * @param node The current node.
+	 * @return The next node, or null if the node is the last one.
+	 */
+	private Node inorderSuccessor(Node node) {
+		if (node.rightChild != null) {
+			return firstInorder(node.rightChild);
+		}
+		return inorderSuccessorAfterSubtree(node);
+	}
+
+	/**
+	 * Gets the node that follows the indicated one in in-order without going into its
+	 * right subtree.
+	 * @param node The current node.
+	 * @return The next node after the right subtree, or null if there is none.
+	 */
+	private Node inorderSuccessorAfterSubtree(Node node) {
+		// Go up until a node is reached from its left child.
+		while (node.parent != null && node.parent.rightChild == node) {
+			node = node.parent;
+		}
+		return node.parent;
 	}
+
 	/**
-	 * Goes over all the nodes recursively in post-order.
-	 * @param visitor The visitor of the nodes with the visit method.
-	 * @param node The node to be visited.
+	 * Gets the first node of a subtree in post-order, the deepest one of its left side.
+	 * @param node The root of the subtree, it can be null.
+	 * @return The first node, or null if the subtree is empty.
 	 */
-	private void postorderVisit(NodeVisitor<E> visitor, Node node) {
+	private Node firstPostorder(Node node) {
 		if (node == null) {
-			return;
+			return null;
+		}
+		while (true) {
+			if (node.leftChild != null) {
+				node = node.leftChild;
+			} else if (node.rightChild != null) {
+				node = node.rightChild;
+			} else {
+				return node;
+			}
+		}
+	}
+
+	/**
+	 * Gets the node that follows the indicated one in post-order.
+	 * @param node The current node.
+	 * @return The next node, or null if the node is the last one.
+	 */
+	private Node postorderSuccessor(Node node) {
+		Node parent = node.parent;
+		if (parent == null) {
+			return null;
+		}
+		if (parent.leftChild == node && parent.rightChild != null) {
+			return firstPostorder(parent.rightChild);
+		}
+		return parent;
+	}
+
+	/**
+	 * The orders in which the nodes can be iterated.
+	 */
+	private enum Order {
+		PREORDER, INORDER, POSTORDER
+	}
+
+	/**
+	 * An iterator over the contents of the nodes that walks the tree one node at a time,
+	 * so the caller can stop at any moment.
+	 */
+	private class PChBinaryTreeIterator implements Iterator<E> {
+
+		private final Order order;
+		private Node next;
+
+		/**
+		 * Creates an iterator placed before the first node in the indicated order.
+		 * @param order The order of the iteration.
+		 */
+		private PChBinaryTreeIterator(Order order) {
+			this.order = order;
+			switch (order) {
+			case PREORDER:
+				next = root;
+				break;
+			case INORDER:
+				next = firstInorder(root);
+				break;
+			default:
+				next = firstPostorder(root);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public E next() throws NoSuchElementException {
+			if (next == null) {
+				throw new NoSuchElementException("No next element");
+			}
+			Node current = next;
+			switch (order) {
+			case PREORDER:
+				next = preorderSuccessor(current);
+				break;
+			case INORDER:
+				next = inorderSuccessor(current);
+				break;
+			default:
+				next = postorderSuccessor(current);
+			}
+			return current.content;
+		}
+	}
+
+	/**
+	 * Gets a spliterator over the contents of the nodes in pre-order. It splits by
+	 * subtrees, and the sizes of the subtrees give the exact size of every part.
+	 * The tree must not be modified while the spliterator is used.
+	 * @return The spliterator of the tree.
+	 */
+	public Spliterator<E> spliterator() {
+		if (root != null) {
+			refreshSubtreeSizes(root);
+		}
+		return new PChBinaryTreeSpliterator(root);
+	}
+
+	/**
+	 * A spliterator over a sequence of subtrees and single nodes in pre-order.
+	 * The pending parts are kept in a stack with the next one at the top.
+	 */
+	private class PChBinaryTreeSpliterator implements Spliterator<E> {
+		
+		private Node[] pendingNodes = newNodeArray(INITIAL_STACK_CAPACITY);
+		// Tells if the pending part is the whole subtree of the node or just the node.
+		private boolean[] wholeSubtrees = new boolean[INITIAL_STACK_CAPACITY];
+		private int pendingCount = 0;
+		private long remainingSize = 0;
+		
+		private static final int INITIAL_STACK_CAPACITY = 16;
+		
+		/**
+		 * Creates a spliterator over the subtree of the indicated node.
+		 * @param subtreeRoot The root of the subtree, or null for an empty spliterator.
+		 */
+		private PChBinaryTreeSpliterator(Node subtreeRoot) {
+			if (subtreeRoot != null) {
+				push(subtreeRoot, true);
+				remainingSize = subtreeRoot.subtreeSize;
+			}
+		}
+		
+		/**
+		 * Pushes a pending part onto the stack, its nodes must already be counted in
+		 * the remaining size.
+		 * @param node The node of the part.
+		 * @param wholeSubtree true if the part is the subtree of the node, false if
+		 * it is just the node.
+		 */
+		private void push(Node node, boolean wholeSubtree) {
+			if (pendingCount == pendingNodes.length) {
+				pendingNodes = Arrays.copyOf(pendingNodes, pendingCount * 2);
+				wholeSubtrees = Arrays.copyOf(wholeSubtrees, pendingCount * 2);
+			}
+			pendingNodes[pendingCount] = node;
+			wholeSubtrees[pendingCount] = wholeSubtree;
+			pendingCount++;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if (pendingCount == 0) {
+				return false;
+			}
+			pendingCount--;
+			Node node = pendingNodes[pendingCount];
+			pendingNodes[pendingCount] = null;
+			if (wholeSubtrees[pendingCount]) {
+				if (node.rightChild != null) {
+					push(node.rightChild, true);
+				}
+				if (node.leftChild != null) {
+					push(node.leftChild, true);
+				}
+			}
+			remainingSize--;
+			action.accept(node.content);
+			return true;
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			
+			if (pendingCount == 1) {
+				if (!wholeSubtrees[0]) {
+					return null;
+				}
+				// Replace the subtree with its root alone followed by its two subtrees.
+				Node node = pendingNodes[0];
+				pendingCount = 0;
+				if (node.rightChild != null) {
+					push(node.rightChild, true);
+				}
+				if (node.leftChild != null) {
+					push(node.leftChild, true);
+				}
+				push(node, false);
+			}
+			if (pendingCount < 2) {
+				return null;
+			}
+			
+			// The upper half of the stack comes first in pre-order, so it is the prefix.
+			int prefixCount = (pendingCount + 1) / 2;
+			PChBinaryTreeSpliterator prefix = new PChBinaryTreeSpliterator(null);
+			for (int i = pendingCount - prefixCount; i < pendingCount; i++) {
+				prefix.push(pendingNodes[i], wholeSubtrees[i]);
+				prefix.remainingSize += wholeSubtrees[i] ? pendingNodes[i].subtreeSize : 1;
+				pendingNodes[i] = null;
+			}
+			pendingCount -= prefixCount;
+			remainingSize -= prefix.remainingSize;
+			
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return remainingSize;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
+	
+	/**
+	 * Reduces the contents of the nodes in parallel, in the common ForkJoinPool. The tree
+	 * is split by subtrees, and the subtrees under a cutoff size are reduced sequentially.
+	 * The result is the same as combining the mapped contents in pre-order, so the
+	 * combiner doesn't need to be commutative. The tree must not be modified meanwhile.
+	 * @param <R> The type of the result.
+	 * @param identity The identity of the combiner, it is the result for an empty tree.
+	 * @param mapper The function that maps the content of a node to a partial result.
+	 * @param combiner An associative function that combines two partial results.
+	 * @return The combination of the mapped contents of all the nodes.
+	 */
+	public <R> R parallelReduce(R identity, Function<? super E, ? extends R> mapper,
+			BinaryOperator<R> combiner) {
+		if (root == null) {
+			return identity;
+		}
+		return ForkJoinPool.commonPool().invoke(
+				new ReduceTask<R>(root, sequentialCutoff(), identity, mapper, combiner));
+	}
+
+	/**
+	 * Performs an action on the contents of all the nodes in parallel, in the common
+	 * ForkJoinPool. The tree is split by subtrees, and the subtrees under a cutoff size
+	 * are walked sequentially. The nodes are visited in no particular order and from
+	 * several threads at once, so the action must be thread safe. The tree must not be
+	 * modified meanwhile.
+	 * @param action The action to perform on the contents.
+	 */
+	public void parallelForEach(Consumer<? super E> action) {
+		if (root != null) {
+			ForkJoinPool.commonPool().invoke(new ForEachTask(root, sequentialCutoff(), action));
+		}
+	}
+
+	/**
+	 * Gets the size of the subtrees that the parallel operations don't split any more,
+	 * which gives a few tasks for each thread of the pool. Getting the size of the tree
+	 * also refreshes all the subtree sizes that the tasks use.
+	 * @return The cutoff size.
+	 */
+	private int sequentialCutoff() {
+		int tasksCount = ForkJoinPool.getCommonPoolParallelism() * 4;
+		return Math.max(size() / tasksCount, MIN_SEQUENTIAL_SUBTREE_SIZE);
+	}
+
+	/**
+	 * A task that reduces a subtree. It goes down the left side of the subtree combining
+	 * the contents on the way, and defers the right subtrees, forking the big ones. The
+	 * deferred results are combined last in reverse order, which is their pre-order.
+	 * Going down in a loop instead of with a task for each node keeps the stack of the
+	 * threads shallow for trees of any height.
+	 * @param <R> The type of the result.
+	 */
+	private class ReduceTask<R> extends RecursiveTask<R> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Node subtreeRoot;
+		private final int cutoff;
+		private final R identity;
+		private final Function<? super E, ? extends R> mapper;
+		private final BinaryOperator<R> combiner;
+		
+		/**
+		 * Creates a task that reduces the indicated subtree.
+		 * @param subtreeRoot The root of the subtree.
+		 * @param cutoff The size of the subtrees that are reduced sequentially.
+		 * @param identity The identity of the combiner.
+		 * @param mapper The function that maps a content to a partial result.
+		 * @param combiner The function that combines two partial results.
+		 */
+		private ReduceTask(Node subtreeRoot, int cutoff, R identity,
+				Function<? super E, ? extends R> mapper, BinaryOperator<R> combiner) {
+			this.subtreeRoot = subtreeRoot;
+			this.cutoff = cutoff;
+			this.identity = identity;
+			this.mapper = mapper;
+			this.combiner = combiner;
+		}
+
+		@Override
+		protected R compute() {
+			
+			R result = identity;
+			ArrayStack<ReduceTask<R>> deferredTasks = new ArrayStack<ReduceTask<R>>();
+			Node node = subtreeRoot;
+			while (node != null) {
+				if (node.subtreeSize <= cutoff) {
+					result = combiner.apply(result, reduceSequentially(node));
+					break;
+				}
+				result = combiner.apply(result, mapper.apply(node.content));
+				if (node.leftChild == null) {
+					node = node.rightChild;
+				} else if (node.rightChild == null) {
+					node = node.leftChild;
+				} else if (node.leftChild.subtreeSize <= cutoff) {
+					result = combiner.apply(result, reduceSequentially(node.leftChild));
+					node = node.rightChild;
+				} else {
+					ReduceTask<R> rightTask = new ReduceTask<R>(node.rightChild, cutoff,
+							identity, mapper, combiner);
+					if (node.rightChild.subtreeSize > cutoff) {
+						rightTask.fork();
+					}
+					deferredTasks.push(rightTask);
+					node = node.leftChild;
+				}
+			}
+			
+			while (deferredTasks.size() > 0) {
+				ReduceTask<R> rightTask = deferredTasks.pop();
+				R rightResult = (rightTask.subtreeRoot.subtreeSize > cutoff) ? rightTask.join()
+						: rightTask.reduceSequentially(rightTask.subtreeRoot);
+				result = combiner.apply(result, rightResult);
+			}
+			return result;
+		}
+		
+		/**
+		 * Reduces a subtree in the current thread, walking it in pre-order.
+		 * @param subtree The root of the subtree.
+		 * @return The reduction of the subtree.
+		 */
+		private R reduceSequentially(Node subtree) {
+			R result = identity;
+			for (Node node = subtree; node != null; node = preorderSuccessor(node, subtree)) {
+				result = combiner.apply(result, mapper.apply(node.content));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A task that performs an action on the contents of a subtree. Like ReduceTask, it
+	 * goes down the left side of the subtree in a loop and forks the big right subtrees.
+	 */
+	private class ForEachTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Node subtreeRoot;
+		private final int cutoff;
+		private final Consumer<? super E> action;
+		
+		/**
+		 * Creates a task that performs an action on the indicated subtree.
+		 * @param subtreeRoot The root of the subtree.
+		 * @param cutoff The size of the subtrees that are walked sequentially.
+		 * @param action The action to perform on the contents.
+		 */
+		private ForEachTask(Node subtreeRoot, int cutoff, Consumer<? super E> action) {
+			this.subtreeRoot = subtreeRoot;
+			this.cutoff = cutoff;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			
+			ArrayStack<ForEachTask> forkedTasks = new ArrayStack<ForEachTask>();
+			Node node = subtreeRoot;
+			while (node != null) {
+				if (node.subtreeSize <= cutoff) {
+					forEachSequentially(node);
+					break;
+				}
+				action.accept(node.content);
+				if (node.leftChild == null) {
+					node = node.rightChild;
+				} else if (node.rightChild == null) {
+					node = node.leftChild;
+				} else {
+					Node smallerChild = node.leftChild;
+					Node biggerChild = node.rightChild;
+					if (smallerChild.subtreeSize > biggerChild.subtreeSize) {
+						smallerChild = node.rightChild;
+						biggerChild = node.leftChild;
+					}
+					if (smallerChild.subtreeSize <= cutoff) {
+						forEachSequentially(smallerChild);
+					} else {
+						ForEachTask smallerTask = new ForEachTask(smallerChild, cutoff, action);
+						smallerTask.fork();
+						forkedTasks.push(smallerTask);
+					}
+					node = biggerChild;
+				}
+			}
+			
+			while (forkedTasks.size() > 0) {
+				forkedTasks.pop().join();
+			}
+		}
+		
+		/**
+		 * Performs the action on a subtree in the current thread, walking it in pre-order.
+		 * @param subtree The root of the subtree.
+		 */
+		private void forEachSequentially(Node subtree) {
+			for (Node node = subtree; node != null; node = preorderSuccessor(node, subtree)) {
+				action.accept(node.content);
+			}
+		}
+	}
+	
+	/**
+	 * Creates an array of nodes.
+	 * @param length The length of the array.
+	 * @return The new array.
+	 */
+	@SuppressWarnings("unchecked")
+	private Node[] newNodeArray(int length) {
+		return (Node[]) new PChBinaryTree<?>.Node[length];
+	}
+
+	/*
+	 * A node whose size is stale has all its ancestors stale too, and a node whose size
+	 * is up to date has all its descendants up to date.
+	 */
+
+	/**
+	 * Marks the size of a node and its ancestors as stale. It stops at the first node
+	 * already marked, whose ancestors are marked too, so a node is only marked once
+	 * between two refreshes.
+	 * @param node The lowest node whose subtree has changed.
+	 */
+	private static void markSubtreeSizesStale(PChBinaryTree<?>.Node node) {
+		for (; node != null && !node.sizeStale; node = node.parent) {
+			node.sizeStale = true;
+		}
+	}
+
+	/**
+	 * Recomputes the stale sizes of a subtree, walking only its marked nodes: it goes
+	 * down to a node whose children are up to date, computes its size and goes back up.
+	 * @param subtreeRoot The root of the subtree.
+	 */
+	private static void refreshSubtreeSizes(PChBinaryTree<?>.Node subtreeRoot) {
+		PChBinaryTree<?>.Node node = subtreeRoot;
+		while (node.sizeStale) {
+			if (node.leftChild != null && node.leftChild.sizeStale) {
+				node = node.leftChild;
+			} else if (node.rightChild != null && node.rightChild.sizeStale) {
+				node = node.rightChild;
+			} else {
+				node.subtreeSize = 1;
+				if (node.leftChild != null) {
+					node.subtreeSize += node.leftChild.subtreeSize;
+				}
+				if (node.rightChild != null) {
+					node.subtreeSize += node.rightChild.subtreeSize;
+				}
+				node.sizeStale = false;
+				if (node != subtreeRoot) {
+					node = node.parent;
+				}
+			}
 		}
-		postorderVisit(visitor, node.leftChild);
-		postorderVisit(visitor, node.rightChild);
-		visitor.visit(node.content);
 	}
 
 	/**
@@ -102,6 +770,9 @@ public class PChBinaryTree<E> implements BinaryTree<E> {
 		Node parent;
 		Node rightChild = null;
 		Node leftChild = null;
+		// The number of nodes of the subtree whose root is this node, if it isn't stale.
+		int subtreeSize = 1;
+		boolean sizeStale = false;
 		
 		private Node(E content, Node parent) {
 			this.content = content;
@@ -119,17 +790,17 @@ public class PChBinaryTree<E> implements BinaryTree<E> {
 		}
 
 		@Override
-		public BinaryTreeNode<E> parent() {
+		public Node parent() {
 			return parent;
 		}
 
 		@Override
-		public BinaryTreeNode<E> rightChild() {
+		public Node rightChild() {
 			return rightChild;
 		}
 
 		@Override
-		public BinaryTreeNode<E> leftChild() {
+		public Node leftChild() {
 			return leftChild;
 		}
 
@@ -139,7 +810,7 @@ public class PChBinaryTree<E> implements BinaryTree<E> {
 				throw new UnsupportedOperationException();
 			}
 			this.rightChild = new Node(element, this);
-			nodesCount++;
+			markSubtreeSizesStale(this);
 		}
 
 		@Override
@@ -148,7 +819,7 @@ public class PChBinaryTree<E> implements BinaryTree<E> {
 				throw new UnsupportedOperationException();
 			}
 			this.leftChild = new Node(element, this);
-			nodesCount++;
+			markSubtreeSizesStale(this);
 		}
 
 		@Override
@@ -157,9 +828,8 @@ public class PChBinaryTree<E> implements BinaryTree<E> {
 				throw new UnsupportedOperationException();
 			}
 			if (branch.root() != null) {
-				this.rightChild = new Node(branch.root().content(), this);
-				nodesCount++;
-				addBranchRec(branch.root(), this.rightChild);
+				this.rightChild = copyBranch(branch.root());
+				markSubtreeSizesStale(this);
 			}
 		}
 
@@ -169,86 +839,147 @@ public class PChBinaryTree<E> implements BinaryTree<E> {
 				throw new UnsupportedOperationException();
 			}
 			if (branch.root() != null) {
-				this.leftChild = new Node(branch.root().content(), this);
-				nodesCount++;
-				addBranchRec(branch.root(), this.leftChild);
+				this.leftChild = copyBranch(branch.root());
+				markSubtreeSizesStale(this);
 			}
 		}
 		
 		/**
-		 * Adds a branch as a child of a node recursively.
-		 * @param branchNode The node of the branch to be added.
-		 * @param nodeChild The child of the node which will contain the content of the root
-		 * of the branch.
+		 * Copies a branch as a child of this node, without linking it from the node.
+		 * The branch is walked with an explicit stack instead of recursion, so it can be
+		 * of any height.
+		 * @param branchRoot The root of the branch to copy.
+		 * @return The root of the copy, with the subtree sizes already computed.
 		 */
-		private void addBranchRec(BinaryTreeNode<E> branchNode, Node nodeChild) {
+		private Node copyBranch(BinaryTreeNode<E> branchRoot) {
 			
-			if (branchNode.leftChild() != null) {
-				nodeChild.leftChild = new Node(branchNode.leftChild().content(), nodeChild);
-				nodesCount++;
-				addBranchRec(branchNode.leftChild(), nodeChild.leftChild);
+			ArrayStack<BinaryTreeNode<E>> pendingBranchNodes = new ArrayStack<BinaryTreeNode<E>>();
+			ArrayStack<Node> pendingCopies = new ArrayStack<Node>();
+			// The copies in pre-order, so popping them gives the children before the parents.
+			ArrayStack<Node> copies = new ArrayStack<Node>();
+			Node copyRoot = new Node(branchRoot.content(), this);
+			pendingBranchNodes.push(branchRoot);
+			pendingCopies.push(copyRoot);
+			
+			while (pendingBranchNodes.size() > 0) {
+				BinaryTreeNode<E> original = pendingBranchNodes.pop();
+				Node copy = pendingCopies.pop();
+				copies.push(copy);
+				if (original.leftChild() != null) {
+					copy.leftChild = new Node(original.leftChild().content(), copy);
+					pendingBranchNodes.push(original.leftChild());
+					pendingCopies.push(copy.leftChild);
+				}
+				if (original.rightChild() != null) {
+					copy.rightChild = new Node(original.rightChild().content(), copy);
+					pendingBranchNodes.push(original.rightChild());
+					pendingCopies.push(copy.rightChild);
+				}
+			}
+			
+			while (copies.size() > 0) {
+				Node copy = copies.pop();
+				if (copy.leftChild != null) {
+					copy.subtreeSize += copy.leftChild.subtreeSize;
+				}
+				if (copy.rightChild != null) {
+					copy.subtreeSize += copy.rightChild.subtreeSize;
+				}
+			}
+			return copyRoot;
+		}
+		
+		/**
+		 * Moves all the nodes of a tree to the right of this node, without copying them.
+		 * The tree is left empty. It takes O(h), h being the depth of this node, to check
+		 * that the node isn't in the tree.
+		 * @param branch The tree to be grafted as the branch of the node.
+		 * @throws UnsupportedOperationException if the node already has a right child.
+		 * @throws IllegalArgumentException if the node belongs to the branch.
+		 */
+		public void graftRightBranch(PChBinaryTree<E> branch)
+				throws UnsupportedOperationException, IllegalArgumentException {
+			if (this.rightChild != null) {
+				throw new UnsupportedOperationException();
+			}
+			this.rightChild = takeBranchRoot(branch);
+		}
+		
+		/**
+		 * Moves all the nodes of a tree to the left of this node, without copying them.
+		 * The tree is left empty. It takes O(h), h being the depth of this node, to check
+		 * that the node isn't in the tree.
+		 * @param branch The tree to be grafted as the branch of the node.
+		 * @throws UnsupportedOperationException if the node already has a left child.
+		 * @throws IllegalArgumentException if the node belongs to the branch.
+		 */
+		public void graftLeftBranch(PChBinaryTree<E> branch)
+				throws UnsupportedOperationException, IllegalArgumentException {
+			if (this.leftChild != null) {
+				throw new UnsupportedOperationException();
 			}
-			if (branchNode.rightChild() != null) {
-				nodeChild.rightChild = new Node(branchNode.rightChild().content(), nodeChild);
-				nodesCount++;
-				addBranchRec(branchNode.rightChild(), nodeChild.rightChild);
+			this.leftChild = takeBranchRoot(branch);
+		}
+		
+		/**
+		 * Takes the root of a tree to make it a child of this node, emptying the tree and
+		 * marking the subtree sizes of this node and its ancestors as stale.
+		 * @param branch The tree whose nodes are taken.
+		 * @return The root of the tree, or null if it is empty.
+		 * @throws IllegalArgumentException if the node belongs to the branch.
+		 */
+		private Node takeBranchRoot(PChBinaryTree<E> branch) throws IllegalArgumentException {
+			Node branchRoot = branch.root;
+			if (branchRoot == null) {
+				return null;
+			}
+			// Grafting a tree under one of its own nodes would make a cycle.
+			for (Node ancestor = this; ancestor != null; ancestor = ancestor.parent) {
+				if (ancestor == branchRoot) {
+					throw new IllegalArgumentException("Invalid branch");
+				}
 			}
+			branch.root = null;
+			branchRoot.parent = this;
+			markSubtreeSizesStale(this);
+			return branchRoot;
 		}
 
 		@Override
-		public BinaryTree<E> cutRightBranch() {
+		public PChBinaryTree<E> cutRightBranch() {
 			
-			BinaryTree<E> branch = cutBranch(this.rightChild);
+			PChBinaryTree<E> branch = cutBranch(this.rightChild);
 			this.rightChild = null;
 			
 			return branch;
 		}
 
 		@Override
-		public BinaryTree<E> cutLeftBranch() {
+		public PChBinaryTree<E> cutLeftBranch() {
 			
-			BinaryTree<E> branch = cutBranch(this.leftChild);
+			PChBinaryTree<E> branch = cutBranch(this.leftChild);
 			this.leftChild = null;
 			
 			return branch;
 		}
 		
 		/**
-		 * Cuts the branch whose root is he node passed as a parameter.
+		 * Cuts the branch whose root is he node passed as a parameter. The nodes are
+		 * moved to the new tree, and the sizes of the ancestors are only marked as stale.
 		 * @param branchRoot The root of the branch to cut.
 		 * @return The cut branch.
 		 */
-		private BinaryTree<E> cutBranch(Node branchRoot) {
+		private PChBinaryTree<E> cutBranch(Node branchRoot) {
 			
 			PChBinaryTree<E> branch = new PChBinaryTree<E>();
 			branch.root = branchRoot;
-			
-			NodesCounter<E> nodesCounter = new NodesCounter<E>();
-			branch.preorderVisit(nodesCounter);
-			branch.nodesCount = nodesCounter.getAndResetNodesCount();
-			nodesCount -= branch.nodesCount;
+			// The parent link would let the traversals of the branch climb out of it.
+			if (branchRoot != null) {
+				branchRoot.parent = null;
+				markSubtreeSizesStale(this);
+			}
 			
 			return branch;
 		}
 	}
-	
-	private static class NodesCounter<E> implements NodeVisitor<E> {
-		
-		int nodesCount = 0;
-
-		@Override
-		public void visit(E nodeContent) {
-			nodesCount++;
-		}
-		
-		/**
-		 * Gets and resets the nodes' count to 0.
-		 * @return The count of the nodes visited.
-		 */
-		public int getAndResetNodesCount() {
-			int temp = nodesCount;
-			nodesCount = 0;
-			return temp;
-		}
-	}
 }
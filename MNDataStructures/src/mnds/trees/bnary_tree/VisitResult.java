@@ -0,0 +1,23 @@
+package mnds.trees.bnary_tree;
+
+/**
+ * What a walk over a tree does after a ControlledNodeVisitor visits a node.
+ * @author Mehdi Nasef.
+ */
+public enum VisitResult {
+	
+	/**
+	 * Go on with the next node.
+	 */
+	CONTINUE,
+	
+	/**
+	 * Go on without visiting the descendants of the node that haven't been visited yet.
+	 */
+	SKIP_SUBTREE,
+	
+	/**
+	 * End the walk.
+	 */
+	STOP
+}
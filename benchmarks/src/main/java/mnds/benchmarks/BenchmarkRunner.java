@@ -0,0 +1,44 @@
+package mnds.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of the benchmarks jar. It takes the usual JMH command line options
+ * and always adds the GC profiler, so every result comes with the allocation rate and
+ * the bytes allocated per operation.
+ * @author Mehdi Nasef.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Runs the benchmarks selected by the command line.
+	 * @param args The JMH command line options, for example a regular expression of the
+	 * benchmarks to run.
+	 * @throws CommandLineOptionException If the options are not valid.
+	 * @throws RunnerException If a benchmark fails.
+	 * @throws IOException If the output can't be written.
+	 */
+	public static void main(String[] args)
+			throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()
+				|| commandLineOptions.shouldListProfilers()) {
+			// The plain JMH entry point handles the options that don't run anything.
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		Options options = new OptionsBuilder()
+				.parent(commandLineOptions)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,129 @@
+package mnds.benchmarks;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mnds.trees.bnary_tree.BinaryTreeNode;
+import mnds.trees.bnary_tree.PChBinaryTree;
+
+/**
+ * Building and traversing PChBinaryTree. java.util has no binary tree to compare with,
+ * so the visits, the iterators and the parallel reduction are compared with each other.
+ * The complete shape fills the tree by levels, and the random shape adds every node as
+ * a child of a random node that still has room.
+ * @author Mehdi Nasef.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryTreeBenchmark {
+
+	@Param({"complete", "random"})
+	public String shape;
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	private PChBinaryTree<Integer> tree;
+
+	/**
+	 * Builds the tree that the traversal benchmarks walk.
+	 */
+	@Setup
+	public void setUp() {
+		tree = build();
+	}
+
+	/**
+	 * Builds a tree of the benchmarked shape and size.
+	 * @return The new tree.
+	 */
+	private PChBinaryTree<Integer> build() {
+		PChBinaryTree<Integer> newTree = new PChBinaryTree<Integer>();
+		newTree.addRoot(0);
+		@SuppressWarnings("unchecked")
+		BinaryTreeNode<Integer>[] nodes = (BinaryTreeNode<Integer>[]) new BinaryTreeNode<?>[size];
+		nodes[0] = newTree.root();
+		Random random = new Random(42);
+		for (int i = 1; i < size; i++) {
+			if ("complete".equals(shape)) {
+				BinaryTreeNode<Integer> parent = nodes[(i - 1) / 2];
+				if ((i & 1) == 1) {
+					parent.addLeftChild(i);
+					nodes[i] = parent.leftChild();
+				} else {
+					parent.addRightChild(i);
+					nodes[i] = parent.rightChild();
+				}
+			} else {
+				while (nodes[i] == null) {
+					BinaryTreeNode<Integer> parent = nodes[random.nextInt(i)];
+					if (random.nextBoolean() && parent.leftChild() == null) {
+						parent.addLeftChild(i);
+						nodes[i] = parent.leftChild();
+					} else if (parent.rightChild() == null) {
+						parent.addRightChild(i);
+						nodes[i] = parent.rightChild();
+					}
+				}
+			}
+		}
+		return newTree;
+	}
+
+	@Benchmark
+	public PChBinaryTree<Integer> buildTree() {
+		return build();
+	}
+
+	@Benchmark
+	public long preorderVisit() {
+		long[] sum = new long[1];
+		tree.preorderVisit(content -> sum[0] += content);
+		return sum[0];
+	}
+
+	@Benchmark
+	public long inorderVisit() {
+		long[] sum = new long[1];
+		tree.inorderVisit(content -> sum[0] += content);
+		return sum[0];
+	}
+
+	@Benchmark
+	public long levelOrderVisit() {
+		long[] sum = new long[1];
+		tree.levelOrderVisit(content -> sum[0] += content);
+		return sum[0];
+	}
+
+	@Benchmark
+	public long inorderIterator() {
+		long sum = 0;
+		for (Iterator<Integer> iterator = tree.inorderIterator(); iterator.hasNext();) {
+			sum += iterator.next();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long parallelReduce() {
+		return tree.parallelReduce(0L, content -> (long) content, Long::sum);
+	}
+}
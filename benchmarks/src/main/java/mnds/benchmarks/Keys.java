@@ -0,0 +1,61 @@
+package mnds.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generation of the keys used by the benchmarks. The keys are created before the
+ * measurements so boxing them isn't measured, and with a fixed seed so every run and
+ * every implementation get the same ones.
+ * @author Mehdi Nasef.
+ */
+final class Keys {
+
+	static final String SEQUENTIAL = "sequential";
+	static final String RANDOM = "random";
+
+	private static final long SEED = 42;
+
+	private Keys() {
+	}
+
+	/**
+	 * Generates the keys from 0 to count - 1, in ascending order or shuffled.
+	 * @param count The number of keys.
+	 * @param order SEQUENTIAL or RANDOM.
+	 * @return The keys.
+	 * @throws IllegalArgumentException If the order isn't one of the known ones.
+	 */
+	static Integer[] distinctKeys(int count, String order) throws IllegalArgumentException {
+		Integer[] keys = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = i;
+		}
+		if (RANDOM.equals(order)) {
+			Random random = new Random(SEED);
+			for (int i = count - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				Integer temp = keys[i];
+				keys[i] = keys[j];
+				keys[j] = temp;
+			}
+		} else if (!SEQUENTIAL.equals(order)) {
+			throw new IllegalArgumentException("Invalid order");
+		}
+		return keys;
+	}
+
+	/**
+	 * Generates random indexes in a range.
+	 * @param count The number of indexes, a power of two so they can be cycled with a mask.
+	 * @param bound The exclusive upper bound of the indexes.
+	 * @return The indexes.
+	 */
+	static int[] randomIndexes(int count, int bound) {
+		Random random = new Random(SEED + 1);
+		int[] indexes = new int[count];
+		for (int i = 0; i < count; i++) {
+			indexes[i] = random.nextInt(bound);
+		}
+		return indexes;
+	}
+}
@@ -0,0 +1,125 @@
+package mnds.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mnds.list.ArrayList;
+import mnds.list.LinkedList;
+import mnds.list.List;
+
+/**
+ * Appending, iterating and reading at random indexes: mnds ArrayList and LinkedList
+ * against the java.util lists of the same kind.
+ * @author Mehdi Nasef.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListBenchmark {
+
+	@Param({"array", "linked"})
+	public String kind;
+
+	@Param({"1000", "100000"})
+	public int size;
+
+	private static final int READS = 1 << 12;
+
+	private Integer[] elements;
+	private List<Integer> mndsList;
+	private java.util.List<Integer> javaList;
+	private int[] readIndexes;
+	private int next = 0;
+
+	/**
+	 * Fills both lists with the same elements.
+	 */
+	@Setup
+	public void setUp() {
+		elements = Keys.distinctKeys(size, Keys.RANDOM);
+		mndsList = newMndsList();
+		javaList = newJavaList();
+		for (Integer element : elements) {
+			mndsList.add(mndsList.size(), element);
+			javaList.add(element);
+		}
+		readIndexes = Keys.randomIndexes(READS, size);
+	}
+
+	/**
+	 * Creates an empty mnds list of the benchmarked kind.
+	 * @return The new list.
+	 */
+	private List<Integer> newMndsList() {
+		return "array".equals(kind) ? new ArrayList<Integer>() : new LinkedList<Integer>();
+	}
+
+	/**
+	 * Creates an empty java.util list of the benchmarked kind.
+	 * @return The new list.
+	 */
+	private java.util.List<Integer> newJavaList() {
+		return "array".equals(kind) ? new java.util.ArrayList<Integer>()
+				: new java.util.LinkedList<Integer>();
+	}
+
+	@Benchmark
+	public List<Integer> mndsAppend() {
+		List<Integer> list = newMndsList();
+		for (Integer element : elements) {
+			list.add(list.size(), element);
+		}
+		return list;
+	}
+
+	@Benchmark
+	public java.util.List<Integer> javaUtilAppend() {
+		java.util.List<Integer> list = newJavaList();
+		for (Integer element : elements) {
+			list.add(element);
+		}
+		return list;
+	}
+
+	@Benchmark
+	public long mndsIterate() {
+		long sum = 0;
+		for (Integer element : mndsList) {
+			sum += element;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long javaUtilIterate() {
+		long sum = 0;
+		for (Integer element : javaList) {
+			sum += element;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public Integer mndsGet() {
+		return mndsList.get(readIndexes[next++ & (READS - 1)]);
+	}
+
+	@Benchmark
+	public Integer javaUtilGet() {
+		return javaList.get(readIndexes[next++ & (READS - 1)]);
+	}
+}
@@ -0,0 +1,109 @@
+package mnds.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mnds.map.AvlTreeMap;
+import mnds.map.HashMap;
+import mnds.map.Map;
+
+/**
+ * Mixed reads and writes on a map of a fixed size: mnds HashMap against java.util.HashMap
+ * and mnds AvlTreeMap against java.util.TreeMap. A read is a get, and a write removes a
+ * key and puts it back, so the size of the map doesn't change during the measurement.
+ * @author Mehdi Nasef.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+
+	@Param({"hash", "tree"})
+	public String kind;
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	@Param({Keys.SEQUENTIAL, Keys.RANDOM})
+	public String keyOrder;
+
+	@Param({"100", "90", "50"})
+	public int readPercent;
+
+	private static final int OPERATIONS = 1 << 16;
+
+	private Map<Integer, Integer> mndsMap;
+	private java.util.Map<Integer, Integer> javaMap;
+	// The key and the kind of every operation of the cycle that the benchmarks repeat.
+	private Integer[] operationKeys;
+	private boolean[] reads;
+	private int next = 0;
+
+	/**
+	 * Fills both maps with the same keys and prepares the operations.
+	 */
+	@Setup
+	public void setUp() {
+		if ("hash".equals(kind)) {
+			mndsMap = new HashMap<Integer, Integer>();
+			javaMap = new java.util.HashMap<Integer, Integer>();
+		} else {
+			mndsMap = new AvlTreeMap<Integer, Integer>();
+			javaMap = new java.util.TreeMap<Integer, Integer>();
+		}
+		Integer[] keys = Keys.distinctKeys(size, keyOrder);
+		for (Integer key : keys) {
+			mndsMap.put(key, key);
+			javaMap.put(key, key);
+		}
+
+		// Sequential keys are also accessed in ascending order, random ones at random.
+		int[] indexes = Keys.randomIndexes(OPERATIONS, size);
+		operationKeys = new Integer[OPERATIONS];
+		reads = new boolean[OPERATIONS];
+		Random random = new Random(7);
+		for (int i = 0; i < OPERATIONS; i++) {
+			operationKeys[i] = Keys.SEQUENTIAL.equals(keyOrder) ? keys[i % size] : keys[indexes[i]];
+			reads[i] = random.nextInt(100) < readPercent;
+		}
+	}
+
+	@Benchmark
+	public Integer mnds() {
+		int i = next++ & (OPERATIONS - 1);
+		Integer key = operationKeys[i];
+		if (reads[i]) {
+			return mndsMap.get(key);
+		}
+		mndsMap.remove(key);
+		mndsMap.put(key, key);
+		return key;
+	}
+
+	@Benchmark
+	public Integer javaUtil() {
+		int i = next++ & (OPERATIONS - 1);
+		Integer key = operationKeys[i];
+		if (reads[i]) {
+			return javaMap.get(key);
+		}
+		javaMap.remove(key);
+		javaMap.put(key, key);
+		return key;
+	}
+}
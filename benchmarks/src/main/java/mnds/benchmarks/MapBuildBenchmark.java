@@ -0,0 +1,73 @@
+package mnds.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mnds.map.AvlTreeMap;
+import mnds.map.HashMap;
+import mnds.map.Map;
+
+/**
+ * Growing a map from empty to a number of keys, which measures the resizes of the hash
+ * maps and the rebalancing of the tree maps.
+ * @author Mehdi Nasef.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBuildBenchmark {
+
+	@Param({"hash", "tree"})
+	public String kind;
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	@Param({Keys.SEQUENTIAL, Keys.RANDOM})
+	public String keyOrder;
+
+	private Integer[] keys;
+
+	/**
+	 * Generates the keys to insert.
+	 */
+	@Setup
+	public void setUp() {
+		keys = Keys.distinctKeys(size, keyOrder);
+	}
+
+	@Benchmark
+	public Map<Integer, Integer> mnds() {
+		Map<Integer, Integer> map = "hash".equals(kind) ? new HashMap<Integer, Integer>()
+				: new AvlTreeMap<Integer, Integer>();
+		for (Integer key : keys) {
+			map.put(key, key);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public java.util.Map<Integer, Integer> javaUtil() {
+		java.util.Map<Integer, Integer> map = "hash".equals(kind)
+				? new java.util.HashMap<Integer, Integer>()
+				: new java.util.TreeMap<Integer, Integer>();
+		for (Integer key : keys) {
+			map.put(key, key);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,170 @@
+package mnds.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import mnds.queue.ArrayQueue;
+import mnds.queue.LinkedQueue;
+import mnds.queue.Queue;
+import mnds.stack.ArrayStack;
+import mnds.stack.LinkedStack;
+import mnds.stack.Stack;
+
+/**
+ * Filling and draining the queues and the stacks, and a steady state of one insertion
+ * and one removal on a container holding a number of elements. The baselines are
+ * ArrayDeque for the array kinds and java.util.LinkedList for the linked ones.
+ * @author Mehdi Nasef.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueStackBenchmark {
+
+	@Param({"array", "linked"})
+	public String kind;
+
+	@Param({"16", "1000", "100000"})
+	public int size;
+
+	private Integer[] elements;
+	private Queue<Integer> mndsQueue;
+	private Stack<Integer> mndsStack;
+	private Deque<Integer> javaQueue;
+	private Deque<Integer> javaStack;
+	private int next = 0;
+
+	/**
+	 * Creates the containers, holding size elements each for the steady state benchmarks.
+	 */
+	@Setup
+	public void setUp() {
+		elements = Keys.distinctKeys(size, Keys.RANDOM);
+		mndsQueue = newMndsQueue();
+		mndsStack = newMndsStack();
+		javaQueue = newJavaDeque();
+		javaStack = newJavaDeque();
+		for (Integer element : elements) {
+			mndsQueue.enqueue(element);
+			mndsStack.push(element);
+			javaQueue.addLast(element);
+			javaStack.push(element);
+		}
+	}
+
+	/**
+	 * Creates an empty mnds queue of the benchmarked kind.
+	 * @return The new queue.
+	 */
+	private Queue<Integer> newMndsQueue() {
+		return "array".equals(kind) ? new ArrayQueue<Integer>() : new LinkedQueue<Integer>();
+	}
+
+	/**
+	 * Creates an empty mnds stack of the benchmarked kind.
+	 * @return The new stack.
+	 */
+	private Stack<Integer> newMndsStack() {
+		return "array".equals(kind) ? new ArrayStack<Integer>() : new LinkedStack<Integer>();
+	}
+
+	/**
+	 * Creates an empty java.util deque of the benchmarked kind.
+	 * @return The new deque.
+	 */
+	private Deque<Integer> newJavaDeque() {
+		return "array".equals(kind) ? new ArrayDeque<Integer>() : new java.util.LinkedList<Integer>();
+	}
+
+	@Benchmark
+	public long mndsQueueFillDrain() {
+		Queue<Integer> queue = newMndsQueue();
+		for (Integer element : elements) {
+			queue.enqueue(element);
+		}
+		long sum = 0;
+		while (queue.size() > 0) {
+			sum += queue.dequeue();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long javaUtilQueueFillDrain() {
+		Deque<Integer> queue = newJavaDeque();
+		for (Integer element : elements) {
+			queue.addLast(element);
+		}
+		long sum = 0;
+		while (!queue.isEmpty()) {
+			sum += queue.pollFirst();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long mndsStackFillDrain() {
+		Stack<Integer> stack = newMndsStack();
+		for (Integer element : elements) {
+			stack.push(element);
+		}
+		long sum = 0;
+		while (stack.size() > 0) {
+			sum += stack.pop();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long javaUtilStackFillDrain() {
+		Deque<Integer> stack = newJavaDeque();
+		for (Integer element : elements) {
+			stack.push(element);
+		}
+		long sum = 0;
+		while (!stack.isEmpty()) {
+			sum += stack.pop();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public Integer mndsQueueSteady() {
+		mndsQueue.enqueue(elements[next++ % size]);
+		return mndsQueue.dequeue();
+	}
+
+	@Benchmark
+	public Integer javaUtilQueueSteady() {
+		javaQueue.addLast(elements[next++ % size]);
+		return javaQueue.pollFirst();
+	}
+
+	@Benchmark
+	public Integer mndsStackSteady() {
+		mndsStack.push(elements[next++ % size]);
+		return mndsStack.pop();
+	}
+
+	@Benchmark
+	public Integer javaUtilStackSteady() {
+		javaStack.push(elements[next++ % size]);
+		return javaStack.pop();
+	}
+}
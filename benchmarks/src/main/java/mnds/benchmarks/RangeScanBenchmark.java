@@ -0,0 +1,96 @@
+package mnds.benchmarks;
+
+import java.util.NavigableMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import mnds.list.List;
+import mnds.map.AvlTreeMap;
+import mnds.map.Map.Entry;
+import mnds.map.SortedMap.Cursor;
+
+/**
+ * Range scans of AvlTreeMap, with a cursor and with entriesInInterval, against iterating
+ * a sub map of java.util.TreeMap. Every scan starts at a random key.
+ * @author Mehdi Nasef.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangeScanBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int size;
+
+	@Param({"10", "1000"})
+	public int rangeLength;
+
+	private static final int SCANS = 1 << 12;
+
+	private AvlTreeMap<Integer, Integer> mndsMap;
+	private NavigableMap<Integer, Integer> javaMap;
+	private Integer[] starts;
+	private Integer[] ends;
+	private int next = 0;
+
+	/**
+	 * Fills both maps with the same keys and chooses the ranges.
+	 */
+	@Setup
+	public void setUp() {
+		mndsMap = new AvlTreeMap<Integer, Integer>();
+		javaMap = new java.util.TreeMap<Integer, Integer>();
+		for (Integer key : Keys.distinctKeys(size, Keys.RANDOM)) {
+			mndsMap.put(key, key);
+			javaMap.put(key, key);
+		}
+		int[] indexes = Keys.randomIndexes(SCANS, size - rangeLength);
+		starts = new Integer[SCANS];
+		ends = new Integer[SCANS];
+		for (int i = 0; i < SCANS; i++) {
+			starts[i] = indexes[i];
+			ends[i] = indexes[i] + rangeLength - 1;
+		}
+	}
+
+	@Benchmark
+	public void mndsCursor(Blackhole blackhole) {
+		int i = next++ & (SCANS - 1);
+		Cursor<Integer, Integer> cursor = mndsMap.ascendingCursor(starts[i], true, rangeLength);
+		while (cursor.next()) {
+			blackhole.consume(cursor.value());
+		}
+	}
+
+	@Benchmark
+	public void mndsInterval(Blackhole blackhole) {
+		int i = next++ & (SCANS - 1);
+		List<Entry<Integer, Integer>> entries = mndsMap.entriesInInterval(starts[i], ends[i]);
+		for (Entry<Integer, Integer> entry : entries) {
+			blackhole.consume(entry.value());
+		}
+	}
+
+	@Benchmark
+	public void javaUtil(Blackhole blackhole) {
+		int i = next++ & (SCANS - 1);
+		for (Integer value : javaMap.subMap(starts[i], true, ends[i], true).values()) {
+			blackhole.consume(value);
+		}
+	}
+}